@@ -4,7 +4,6 @@ package com.ecommerce.project.controller;
 import com.ecommerce.project.model.AppRole;
 import com.ecommerce.project.model.Role;
 import com.ecommerce.project.model.User;
-import com.ecommerce.project.repositories.RoleRepository;
 import com.ecommerce.project.repositories.UserRepository;
 import com.ecommerce.project.security.jwt.JwtUtils;
 import com.ecommerce.project.security.response.MessageResponse;
@@ -12,8 +11,15 @@ import com.ecommerce.project.security.response.UserInfoResponse;
 import com.ecommerce.project.security.reuqest.LoginRequest;
 import com.ecommerce.project.security.reuqest.SignupRequest;
 import com.ecommerce.project.security.services.UserDetailsImpl;
+import com.ecommerce.project.security.services.RoleCache;
+import com.ecommerce.project.security.services.SignupDuplicateFilter;
+import com.ecommerce.project.security.services.TokenRevocationService;
+import com.ecommerce.project.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -45,7 +51,16 @@ public class AuthController {
     PasswordEncoder encoder;
 
     @Autowired
-    RoleRepository roleRepository;
+    UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    RoleCache roleCache;
+
+    @Autowired
+    SignupDuplicateFilter signupDuplicateFilter;
 
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
@@ -76,11 +91,14 @@ public class AuthController {
 
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signupRequest){
-        if(userRepository.existsByUserName(signupRequest.getUsername())){
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already taken"));
-        }
-        if(userRepository.existsByEmail(signupRequest.getEmail())){
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already taken"));
+        if(signupDuplicateFilter.mightBeTaken(signupRequest.getUsername(), signupRequest.getEmail())){
+            List<String> takenFields = userRepository.findTakenFields(signupRequest.getUsername(), signupRequest.getEmail());
+            if(takenFields.contains("username")){
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already taken"));
+            }
+            if(takenFields.contains("email")){
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already taken"));
+            }
         }
         User user = new User(
                 signupRequest.getUsername(),
@@ -91,31 +109,30 @@ public class AuthController {
         Set<Role> roles = new HashSet<>();
 
         if(strRoles ==  null){
-            Role userRole = roleRepository.findByRoleName(AppRole.ROLE_USER).
-                    orElseThrow(()-> new RuntimeException("Error: Role is not found"));
-            roles.add(userRole);
+            roles.add(roleCache.getReference(AppRole.ROLE_USER));
         }else{
             strRoles.forEach(role->{
                 switch (role){
                     case "admin":
-                        Role adminRole = roleRepository.findByRoleName(AppRole.ROLE_ADMIN).
-                                orElseThrow(()-> new RuntimeException("Error: Role is not found"));
-                        roles.add(adminRole);
+                        roles.add(roleCache.getReference(AppRole.ROLE_ADMIN));
                         break;
                     case "seller":
-                        Role sellerRole = roleRepository.findByRoleName(AppRole.ROLE_SELLER).
-                                orElseThrow(()-> new RuntimeException("Error: Role is not found"));
-                        roles.add(sellerRole);
+                        roles.add(roleCache.getReference(AppRole.ROLE_SELLER));
                         break;
                     default:
-                        Role userRole = roleRepository.findByRoleName(AppRole.ROLE_USER).
-                                orElseThrow(()-> new RuntimeException("Error: Role is not found"));
-                        roles.add(userRole);
+                        roles.add(roleCache.getReference(AppRole.ROLE_USER));
                 }
             });
         }
         user.setRoles(roles);
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent signup for the same username or email
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Username or email is already taken"));
+        }
+        signupDuplicateFilter.add(user.getUserName(), user.getEmail());
+        userDetailsService.evict(user.getUserName());
         return ResponseEntity.ok(new MessageResponse("User registered successfully"));
     }
 
@@ -133,7 +150,12 @@ public class AuthController {
     }
 
     @PostMapping("/signout")
-    public ResponseEntity<?> signOut(){
+    public ResponseEntity<?> signOut(HttpServletRequest request){
+        String jwt = jwtUtils.getJwtFromCookies(request);
+        Claims claims = jwt != null ? jwtUtils.parseClaims(jwt) : null;
+        if(claims != null){
+            tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+        }
         ResponseCookie cookie = jwtUtils.getCleanJwtCookie();
         return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, cookie.toString())
                 .body(new MessageResponse("You have been signed out!!!"));
@@ -1,8 +1,6 @@
 package com.ecommerce.project.controller;
 
-import com.ecommerce.project.model.Cart;
 import com.ecommerce.project.payload.CartDTO;
-import com.ecommerce.project.repositories.CartRepository;
 import com.ecommerce.project.service.CartService;
 import com.ecommerce.project.util.AuthUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,9 +16,6 @@ public class CartController {
     @Autowired
      CartService cartService;
 
-    @Autowired
-    CartRepository cartRepository;
-
     @Autowired
     AuthUtil authUtil;
 
@@ -41,9 +36,7 @@ public class CartController {
     @GetMapping("/carts/users/cart")
     public ResponseEntity<CartDTO> getCartByUser(){
         String emailId = authUtil.loggedInEmail();
-        Cart cart = cartRepository.findCartByEmail(emailId);
-        Long cartId = cart.getCartId();
-        CartDTO cartDTO = cartService.getCartByUserId(emailId, cartId);
+        CartDTO cartDTO = cartService.getCartByEmail(emailId);
         return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.OK);
     }
 
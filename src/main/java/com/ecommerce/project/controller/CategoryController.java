@@ -25,9 +25,11 @@ public class CategoryController {
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(name = "pageSize",defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = "sortBy",defaultValue = AppConstants.SORT_CATEGORIES_BY, required = false) String sortBy,
-            @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
+            @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "includeTotals", defaultValue = "true", required = false) boolean includeTotals
     ){
-        CategoryResponse categoryResponse  = categoryService.getAllCategories(pageNumber,pageSize,sortBy,sortOrder);
+        CategoryResponse categoryResponse  = categoryService.getAllCategories(pageNumber,pageSize,sortBy,sortOrder,cursor,includeTotals);
         return new ResponseEntity<>(categoryResponse, HttpStatus.OK);
     }
 
@@ -1,18 +1,25 @@
 package com.ecommerce.project.controller;
 
+import com.ecommerce.project.config.AppConstants;
 import com.ecommerce.project.payload.OrderDTO;
 import com.ecommerce.project.payload.OrderRequestDTO;
+import com.ecommerce.project.payload.OrderResponse;
+import com.ecommerce.project.payload.OrderStatusDTO;
 import com.ecommerce.project.payload.StripePaymentDTO;
+import com.ecommerce.project.service.IdempotencyService;
 import com.ecommerce.project.service.OrderService;
 import com.ecommerce.project.service.StripeService;
 import com.ecommerce.project.util.AuthUtil;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api")
 public class OrderController {
@@ -25,28 +32,89 @@ public class OrderController {
     @Autowired
     private StripeService stripeService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("order/users/payments/{paymentMethod}")
     public ResponseEntity<OrderDTO> orderProducts(@PathVariable String paymentMethod,
-                                                  @RequestBody OrderRequestDTO orderRequestDTO){
+                                                  @RequestBody OrderRequestDTO orderRequestDTO,
+                                                  @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey){
+        String emailId = authUtil.loggedInEmail();
+        return idempotencyService.execute("order:" + emailId + ":" + paymentMethod, idempotencyKey, orderRequestDTO, () -> {
+            OrderDTO order = orderService.placeOrder(
+                    emailId,
+                    orderRequestDTO.getAddressId(),
+                    paymentMethod,
+                    orderRequestDTO.getPgName(),
+                    orderRequestDTO.getPgPaymentId(),
+                    orderRequestDTO.getPgStatus(),
+                    orderRequestDTO.getPgResponseMessage()
+            );
+
+            return new ResponseEntity<>(order, HttpStatus.CREATED);
+        });
+    }
+
+    @PostMapping("order/users/payments/{paymentMethod}/async")
+    public ResponseEntity<OrderStatusDTO> submitOrder(@PathVariable String paymentMethod,
+                                                      @RequestBody OrderRequestDTO orderRequestDTO,
+                                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey){
+        String emailId = authUtil.loggedInEmail();
+        return idempotencyService.execute("order-async:" + emailId + ":" + paymentMethod, idempotencyKey, orderRequestDTO, () -> {
+            OrderStatusDTO orderStatus = orderService.submitOrder(
+                    emailId,
+                    orderRequestDTO.getAddressId(),
+                    paymentMethod,
+                    orderRequestDTO.getPgName(),
+                    orderRequestDTO.getPgPaymentId(),
+                    orderRequestDTO.getPgStatus(),
+                    orderRequestDTO.getPgResponseMessage()
+            );
+
+            return new ResponseEntity<>(orderStatus, HttpStatus.ACCEPTED);
+        });
+    }
+
+    @GetMapping("order/users/orders/{orderId}/status")
+    public ResponseEntity<OrderStatusDTO> getOrderStatus(@PathVariable Long orderId){
+        String emailId = authUtil.loggedInEmail();
+        OrderStatusDTO orderStatus = orderService.getOrderStatus(emailId, orderId);
+        return new ResponseEntity<>(orderStatus, HttpStatus.OK);
+    }
+
+    @GetMapping("order/users/orders")
+    public ResponseEntity<OrderResponse> getUserOrders(
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
+            @RequestParam(name = "cursor", required = false) String cursor){
         String emailId = authUtil.loggedInEmail();
-        OrderDTO order = orderService.placeOrder(
-                emailId,
-                orderRequestDTO.getAddressId(),
-                paymentMethod,
-                orderRequestDTO.getPgName(),
-                orderRequestDTO.getPgPaymentId(),
-                orderRequestDTO.getPgStatus(),
-                orderRequestDTO.getPgResponseMessage()
-
-        );
-
-        return new ResponseEntity<>(order, HttpStatus.CREATED);
+        OrderResponse orderResponse = orderService.getOrderHistory(emailId, status, from, to, pageSize, cursor);
+        return new ResponseEntity<>(orderResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("admin/orders")
+    public ResponseEntity<OrderResponse> getAllOrders(
+            @RequestParam(name = "email", required = false) String email,
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
+            @RequestParam(name = "cursor", required = false) String cursor){
+        OrderResponse orderResponse = orderService.getOrderHistory(email, status, from, to, pageSize, cursor);
+        return new ResponseEntity<>(orderResponse, HttpStatus.OK);
     }
 
     @PostMapping("order/stripe-client-secret")
-    public ResponseEntity<String> createStripeClientSecret(@RequestBody StripePaymentDTO stripePaymentDTO) throws StripeException {
-        PaymentIntent paymentIntent = stripeService.paymentIntent(stripePaymentDTO);
-        return new ResponseEntity<>(paymentIntent.getClientSecret(), HttpStatus.CREATED);
+    public ResponseEntity<String> createStripeClientSecret(@RequestBody StripePaymentDTO stripePaymentDTO,
+                                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) throws StripeException {
+        Long userId = authUtil.loggedInUserId();
+        String stripeKey = idempotencyKey != null && !idempotencyKey.isBlank() ? userId + "-" + idempotencyKey : null;
+        return idempotencyService.execute("stripe:" + userId, idempotencyKey, stripePaymentDTO, () -> {
+            PaymentIntent paymentIntent = stripeService.paymentIntent(stripePaymentDTO, stripeKey);
+            return new ResponseEntity<>(paymentIntent.getClientSecret(), HttpStatus.CREATED);
+        });
     }
     }
 
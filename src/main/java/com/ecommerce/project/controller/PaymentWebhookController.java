@@ -0,0 +1,29 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.model.PaymentEvent;
+import com.ecommerce.project.service.PaymentEventJournal;
+import com.ecommerce.project.service.StripeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+public class PaymentWebhookController {
+    @Autowired
+    private StripeService stripeService;
+
+    @Autowired
+    private PaymentEventJournal paymentEventJournal;
+
+    @PostMapping("webhooks/stripe")
+    public ResponseEntity<Void> receiveStripeEvent(@RequestBody String payload,
+                                                   @RequestHeader(value = "Stripe-Signature", required = false) String signature){
+        PaymentEvent event = stripeService.parseWebhookEvent(payload, signature);
+        if(event != null){
+            paymentEventJournal.append(event);
+        }
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+}
@@ -35,9 +35,11 @@ public class ProductController {
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(name = "pageSize",defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = "sortBy",defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
-            @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
+            @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "includeTotals", defaultValue = "true", required = false) boolean includeTotals
     ){
-        ProductResponse productResponse =  productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder, keyword, category);
+        ProductResponse productResponse =  productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder, keyword, category, cursor, includeTotals);
         return new ResponseEntity<>(productResponse, HttpStatus.OK);
     }
 
@@ -48,9 +50,10 @@ public class ProductController {
             @RequestParam(name = "pageSize",defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = "sortBy",defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
             @RequestParam(name="sortOrder",defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+            @RequestParam(name = "cursor", required = false) String cursor,
             @PathVariable Long categoryId
     ){
-        ProductResponse productResponse =  productService.getProductByCategory(pageNumber, pageSize, sortBy, sortOrder,categoryId);
+        ProductResponse productResponse =  productService.getProductByCategory(pageNumber, pageSize, sortBy, sortOrder,categoryId, cursor);
         return new ResponseEntity<>(productResponse, HttpStatus.OK);
     }
 
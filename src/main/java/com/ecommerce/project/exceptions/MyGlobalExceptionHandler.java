@@ -49,5 +49,12 @@ public class MyGlobalExceptionHandler {
         return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<APIResponse> myServiceUnavailableException(ServiceUnavailableException e){
+        String message = e.getMessage();
+        APIResponse apiResponse =  new APIResponse(message, false);
+        return new ResponseEntity<>(apiResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
 
 }
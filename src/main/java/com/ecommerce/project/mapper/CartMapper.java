@@ -0,0 +1,13 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.payload.CartDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = ProductMapper.class)
+public interface CartMapper {
+
+    @Mapping(target = "products", source = "cartItems")
+    CartDTO toCartDTO(Cart cart);
+}
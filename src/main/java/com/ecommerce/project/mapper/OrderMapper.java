@@ -0,0 +1,24 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.model.OrderItem;
+import com.ecommerce.project.model.Payment;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderItemDTO;
+import com.ecommerce.project.payload.PaymentDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = ProductMapper.class)
+public interface OrderMapper {
+
+    // Order items are added by the caller from the saved OrderItem rows
+    @Mapping(target = "orderItems", ignore = true)
+    @Mapping(target = "localDate", source = "orderDate")
+    @Mapping(target = "addressId", source = "address.addressId")
+    OrderDTO toOrderDTO(Order order);
+
+    OrderItemDTO toOrderItemDTO(OrderItem orderItem);
+
+    PaymentDTO toPaymentDTO(Payment payment);
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ProductMapper {
+
+    @Mapping(target = "productID", source = "productId")
+    @Mapping(target = "imageVariants", ignore = true)
+    ProductDTO toProductDTO(Product product);
+
+    // Product as shown inside a cart: the product's details with the quantity held in the cart
+    @Mapping(target = "productID", source = "product.productId")
+    @Mapping(target = "productName", source = "product.productName")
+    @Mapping(target = "description", source = "product.description")
+    @Mapping(target = "image", source = "product.image")
+    @Mapping(target = "quantity", source = "quantity")
+    @Mapping(target = "price", source = "product.price")
+    @Mapping(target = "discount", source = "product.discount")
+    @Mapping(target = "specialPrice", source = "product.specialPrice")
+    @Mapping(target = "imageVariants", ignore = true)
+    ProductDTO toProductDTO(CartItem cartItem);
+
+    @Mapping(target = "productId", source = "productID")
+    @Mapping(target = "category", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    Product toProduct(ProductDTO productDTO);
+}
@@ -18,7 +18,8 @@ import java.util.List;
 public class Address {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "addressSeq")
+    @SequenceGenerator(name = "addressSeq", sequenceName = "address_seq", allocationSize = 50)
     @JoinColumn(name = "address_id")
     private Long addressId;
 
@@ -11,23 +11,30 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(columnList = "email, order_date, order_id"),
+        @Index(columnList = "order_status, order_date, order_id"),
+        @Index(columnList = "order_date, order_id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderSeq")
+    @SequenceGenerator(name = "orderSeq", sequenceName = "orders_seq", allocationSize = 50)
+    @Column(name = "order_id")
     private Long orderId;
 
     @Email
-    @Column(nullable = false)
+    @Column(name = "email", nullable = false)
     private String email;
 
     @OneToMany(mappedBy = "order", cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     private List<OrderItem> orderItemList = new ArrayList<>();
 
+    @Column(name = "order_date")
     private LocalDate orderDate;
 
     @OneToOne
@@ -36,6 +43,7 @@ public class Order {
 
     private Double totalAmount;
 
+    @Column(name = "order_status")
     private String orderStatus;
 
     @ManyToOne
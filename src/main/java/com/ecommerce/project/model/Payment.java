@@ -7,14 +7,17 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = @Index(columnList = "pg_payment_id"))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "paymentSeq")
+    @SequenceGenerator(name = "paymentSeq", sequenceName = "payments_seq", allocationSize = 50)
     private Long paymentId;
 
     @OneToOne(mappedBy = "payment", cascade= {CascadeType.PERSIST, CascadeType.MERGE})
@@ -24,11 +27,22 @@ public class Payment {
     @Size(min=4, message = "Payment method must contain atleast 4 characters")
     private String paymentMethod;
 
+    @Column(name = "pg_payment_id")
     private String pgPaymentId;
     private String pgStatus;
     private String pgResponseMessage;
     private String pgName;
 
+    // last provider event applied to this payment, so older or redelivered events never overwrite a newer status
+    @Column(name = "pg_event_id")
+    private String pgEventId;
+
+    @Column(name = "pg_event_created_at")
+    private Instant pgEventCreatedAt;
+
+    @Column(name = "pg_event_rank")
+    private Integer pgEventRank;
+
     public Payment(String pgPaymentId, String pgStatus, String pgResponseMessage, String pgName, String paymentMethod){
         this.paymentId = paymentId;
         this.paymentMethod = paymentMethod;
@@ -0,0 +1,57 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Journal of payment provider webhook events, appended by the webhook endpoint and applied
+ * to {@link Payment} and {@link Order} rows by the reconciler.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "payment_events", indexes = @Index(columnList = "processed_at, retry_at"))
+public class PaymentEvent {
+
+    // provider event id, so redelivered events are only journaled once
+    @Id
+    @Column(name = "event_id")
+    private String eventId;
+
+    @Column(name = "event_type")
+    private String eventType;
+
+    @Column(name = "pg_payment_id")
+    private String pgPaymentId;
+
+    @Column(name = "pg_status")
+    private String pgStatus;
+
+    @Column(name = "pg_response_message")
+    private String pgResponseMessage;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "received_at")
+    private Instant receivedAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    // events that match no payment yet (the order is posted after the webhook) are retried until then
+    @Column(name = "retry_at")
+    private Instant retryAt;
+
+    @Column(name = "attempts")
+    private Integer attempts;
+}
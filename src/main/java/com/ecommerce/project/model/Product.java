@@ -8,9 +8,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -19,7 +16,8 @@ import java.util.List;
 @ToString
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productSeq")
+    @SequenceGenerator(name = "productSeq", sequenceName = "products_seq", allocationSize = 50)
     private Long productId;
 
     @NotBlank
@@ -41,7 +39,4 @@ public class Product {
     @ManyToOne
     @JoinColumn(name = "seller_id")
     private User user;
-
-    @OneToMany(mappedBy = "product", cascade = {CascadeType.PERSIST,CascadeType.MERGE}, fetch = FetchType.EAGER)
-    private List<CartItem> products = new ArrayList<>();
 }
@@ -5,7 +5,9 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -21,7 +23,8 @@ import java.util.Set;
 })
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "userSeq")
+    @SequenceGenerator(name = "userSeq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "user_id")
     private Long userId;
 
@@ -41,6 +44,14 @@ public class User {
     @Column(name = "password")
     private String password;
 
+    // bumped on every role change; tokens carry the version they were issued with
+    @ColumnDefault("0")
+    @Column(name = "role_version", nullable = false)
+    private int roleVersion;
+
+    @Column(name = "roles_changed_at")
+    private Instant rolesChangedAt;
+
     public User(String userName, String email, String password) {
         this.userName = userName;
         this.email = email;
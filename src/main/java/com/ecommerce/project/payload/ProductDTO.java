@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,4 +20,18 @@ public class ProductDTO {
     private Double discount;
     private Double specialPrice;
 
+    // Resized copies of the image by variant (thumbnail, card, detail), created in the background
+    private Map<String, String> imageVariants;
+
+    public ProductDTO(Long productID, String productName, String description, String image,
+                      Integer quantity, Double price, Double discount, Double specialPrice) {
+        this.productID = productID;
+        this.productName = productName;
+        this.description = description;
+        this.image = image;
+        this.quantity = quantity;
+        this.price = price;
+        this.discount = discount;
+        this.specialPrice = specialPrice;
+    }
 }
@@ -5,6 +5,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     @Query("SELECT ci FROM CartItem ci WHERE ci.cart.id =?1 AND ci.product.id=?2")
@@ -12,4 +15,21 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id=?2")
-    void deleteCartItemByProductIdAndCartId(Long cartId, Long productId);}
+    void deleteCartItemByProductIdAndCartId(Long cartId, Long productId);
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.productPrice = ?2 WHERE ci.product.productId = ?1 AND ci.cart.cartId IN ?3")
+    int updateProductPrice(Long productId, Double price, List<Long> cartIds);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.product.productId = ?1 AND ci.cart.cartId IN ?2")
+    int deleteByProductIdAndCartIds(Long productId, List<Long> cartIds);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.cartId = ?1 AND ci.product.productId IN ?2")
+    int deleteByCartIdAndProductIds(Long cartId, Collection<Long> productIds);
+
+    @Query("SELECT DISTINCT p.productId, p.specialPrice FROM CartItem ci JOIN ci.product p " +
+            "WHERE ci.productPrice <> p.specialPrice")
+    List<Object[]> findProductsWithStaleCartPrices();
+}
@@ -1,9 +1,12 @@
 package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Cart;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
@@ -16,4 +19,22 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p where p.id= ?1")
     List<Cart> findCartByProductId(Long productId);
+
+    @Query("SELECT DISTINCT ci.cart.cartId FROM CartItem ci WHERE ci.product.productId = ?1 AND ci.cart.cartId > ?2 ORDER BY ci.cart.cartId")
+    List<Long> findCartIdsByProductId(Long productId, Long afterCartId, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalPrice = c.totalPrice + COALESCE((SELECT SUM((?2 - ci.productPrice) * ci.quantity) " +
+            "FROM CartItem ci WHERE ci.cart = c AND ci.product.productId = ?1), 0) WHERE c.cartId IN ?3")
+    int addPriceDifferenceToTotals(Long productId, Double price, List<Long> cartIds);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalPrice = c.totalPrice - COALESCE((SELECT SUM(ci.productPrice * ci.quantity) " +
+            "FROM CartItem ci WHERE ci.cart = c AND ci.product.productId = ?1), 0) WHERE c.cartId IN ?2")
+    int subtractLineTotals(Long productId, List<Long> cartIds);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalPrice = c.totalPrice - COALESCE((SELECT SUM(ci.productPrice * ci.quantity) " +
+            "FROM CartItem ci WHERE ci.cart = c AND ci.product.productId IN ?2), 0) WHERE c.cartId = ?1")
+    int subtractLineTotalsOfProducts(Long cartId, Collection<Long> productIds);
 }
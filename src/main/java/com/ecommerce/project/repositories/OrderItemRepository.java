@@ -2,8 +2,23 @@ package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    @Query("SELECT oi.product.productId, oi.quantity FROM OrderItem oi WHERE oi.order.orderId = ?1")
+    List<Object[]> findProductQuantitiesByOrderId(Long orderId);
+
+    // Items of a whole page of orders in one query, as
+    // [orderId, orderItemId, quantity, discount, orderedProductPrice, productId, productName,
+    //  description, image, product quantity, price, product discount, specialPrice]
+    @Query("SELECT oi.order.orderId, oi.orderItemId, oi.quantity, oi.discount, oi.orderedProductPrice, " +
+            "p.productId, p.productName, p.description, p.image, p.quantity, p.price, p.discount, p.specialPrice " +
+            "FROM OrderItem oi JOIN oi.product p WHERE oi.order.orderId IN ?1 ORDER BY oi.orderItemId")
+    List<Object[]> findItemRowsByOrderIds(Collection<Long> orderIds);
 }
@@ -1,9 +1,22 @@
 package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderStatus = ?1 ORDER BY o.orderId")
+    List<Long> findOrderIdsByOrderStatus(String orderStatus, Limit limit);
+
+    // Moves the order to the next status only if it is still in the expected one
+    @Modifying
+    @Query("UPDATE Order o SET o.orderStatus = ?3 WHERE o.orderId = ?1 AND o.orderStatus = ?2")
+    int updateOrderStatus(Long orderId, String expectedStatus, String newStatus);
 }
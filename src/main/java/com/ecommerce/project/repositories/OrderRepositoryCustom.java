@@ -0,0 +1,17 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.payload.OrderDTO;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Reads the matching orders with their payment and address id in one query, without
+     * loading the entities and their eager associations. Order items are left empty.
+     */
+    List<OrderDTO> findOrderDTOs(Specification<Order> spec, Sort sort, int limit);
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.Address;
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.model.Payment;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.PaymentDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderDTO> findOrderDTOs(Specification<Order> spec, Sort sort, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Order> root = query.from(Order.class);
+        Join<Order, Payment> payment = root.join("payment", JoinType.LEFT);
+        Join<Order, Address> address = root.join("address", JoinType.LEFT);
+
+        query.multiselect(
+                root.get("orderId"),
+                root.get("email"),
+                root.get("orderDate"),
+                root.get("totalAmount"),
+                root.get("orderStatus"),
+                address.get("addressId"),
+                payment.get("paymentId"),
+                payment.get("paymentMethod"),
+                payment.get("pgPaymentId"),
+                payment.get("pgStatus"),
+                payment.get("pgResponseMessage"),
+                payment.get("pgName"));
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        List<OrderDTO> orders = new ArrayList<>();
+        for (Tuple row : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            OrderDTO orderDTO = new OrderDTO();
+            orderDTO.setOrderId(row.get(0, Long.class));
+            orderDTO.setEmail(row.get(1, String.class));
+            orderDTO.setLocalDate(row.get(2, LocalDate.class));
+            orderDTO.setTotalAmount(row.get(3, Double.class));
+            orderDTO.setOrderStatus(row.get(4, String.class));
+            orderDTO.setAddressId(row.get(5, Long.class));
+            if (row.get(6) != null) {
+                orderDTO.setPayment(new PaymentDTO(
+                        row.get(6, Long.class),
+                        row.get(7, String.class),
+                        row.get(8, String.class),
+                        row.get(9, String.class),
+                        row.get(10, String.class),
+                        row.get(11, String.class)));
+            }
+            orders.add(orderDTO);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.PaymentEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PaymentEventRepository extends JpaRepository<PaymentEvent, String>, PaymentEventRepositoryCustom {
+}
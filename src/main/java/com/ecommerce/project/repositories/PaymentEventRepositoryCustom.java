@@ -0,0 +1,43 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.PaymentEvent;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface PaymentEventRepositoryCustom {
+
+    /**
+     * Journals the events with one multi-row insert. Events already journaled (same event
+     * id) are skipped. Returns the number of rows inserted.
+     */
+    int appendEvents(List<PaymentEvent> events);
+
+    /**
+     * Applies up to {@code limit} due events in one statement. Per payment, the latest
+     * event of the batch updates the matching payments row (by pg_payment_id) unless the
+     * payment already applied a later one; a succeeded payment moves a confirmable order to
+     * the confirmed status, a failed or canceled one moves a failable order to the failed
+     * status. Events of orders still in a pending status are retried later, as are events
+     * that match no payment yet, until they are older than the maximum age. Rows claimed by
+     * a concurrent reconciler are skipped. Returns the number of events claimed.
+     */
+    int reconcile(int limit, ReconcileRules rules);
+
+    /**
+     * Deletes up to {@code limit} events processed before the given time. Returns the
+     * number of rows deleted.
+     */
+    int purgeProcessed(Instant processedBefore, int limit);
+
+    record ReconcileRules(Collection<String> pendingOrderStatuses,
+                          String confirmedOrderStatus,
+                          String failedOrderStatus,
+                          Collection<String> confirmableOrderStatuses,
+                          Collection<String> failableOrderStatuses,
+                          long retryDelayMillis,
+                          long maxRetryDelayMillis,
+                          long maxAgeMillis) {
+    }
+}
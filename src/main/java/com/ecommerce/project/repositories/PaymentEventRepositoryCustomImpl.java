@@ -0,0 +1,157 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.PaymentEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class PaymentEventRepositoryCustomImpl implements PaymentEventRepositoryCustom {
+
+    private static final String INSERT_PREFIX = "INSERT INTO payment_events "
+            + "(event_id, event_type, pg_payment_id, pg_status, pg_response_message, created_at, received_at, retry_at, attempts) VALUES ";
+
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    /*
+     * Stripe's created time has one-second resolution, so events of the same second are
+     * ordered by how far along the payment they are (then by id, to be deterministic); a
+     * payment only takes an event at or after the one it last applied.
+     */
+    private static final String EVENT_RANK = """
+            CASE event_type
+                WHEN 'payment_intent.created' THEN 0
+                WHEN 'payment_intent.payment_failed' THEN 2
+                WHEN 'payment_intent.succeeded' THEN 3
+                WHEN 'payment_intent.canceled' THEN 3
+                ELSE 1
+            END""";
+
+    private static final String RECONCILE = """
+            WITH claimed AS (
+                SELECT event_id, event_type, pg_payment_id, pg_status, pg_response_message, created_at, received_at,
+                       %s AS event_rank
+                FROM payment_events
+                WHERE processed_at IS NULL AND retry_at <= now()
+                ORDER BY retry_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            ), latest AS (
+                SELECT DISTINCT ON (pg_payment_id) event_id, event_type, pg_payment_id, pg_status,
+                       pg_response_message, created_at, event_rank
+                FROM claimed
+                WHERE pg_payment_id IS NOT NULL
+                ORDER BY pg_payment_id, created_at DESC, event_rank DESC, event_id DESC
+            ), deferred AS (
+                -- the order is still in the fulfillment pipeline, its status is settled once it leaves it
+                SELECT l.event_id
+                FROM latest l
+                JOIN payments p ON p.pg_payment_id = l.pg_payment_id
+                JOIN orders o ON o.payment_id = p.payment_id
+                WHERE o.order_status IN (:pendingStatuses)
+            ), applicable AS (
+                SELECT * FROM latest WHERE event_id NOT IN (SELECT event_id FROM deferred)
+            ), paid AS (
+                UPDATE payments p SET pg_status = a.pg_status, pg_response_message = a.pg_response_message,
+                    pg_event_id = a.event_id, pg_event_created_at = a.created_at, pg_event_rank = a.event_rank
+                FROM applicable a
+                WHERE p.pg_payment_id = a.pg_payment_id
+                  AND (p.pg_event_created_at IS NULL
+                    OR (a.created_at, a.event_rank, a.event_id) >= (p.pg_event_created_at, p.pg_event_rank, p.pg_event_id))
+                RETURNING p.payment_id, a.event_type
+            ), ordered AS (
+                UPDATE orders o SET order_status =
+                    CASE WHEN paid.event_type = 'payment_intent.succeeded' THEN :confirmed ELSE :failed END
+                FROM paid
+                WHERE o.payment_id = paid.payment_id
+                  AND ((paid.event_type = 'payment_intent.succeeded' AND o.order_status IN (:confirmable))
+                    OR (paid.event_type IN ('payment_intent.payment_failed', 'payment_intent.canceled')
+                        AND o.order_status IN (:failable)))
+            ), done AS (
+                -- matched a payment (applied or superseded), or gave up waiting for one
+                UPDATE payment_events e SET processed_at = now()
+                FROM claimed c
+                WHERE e.event_id = c.event_id
+                  AND ((c.event_id NOT IN (SELECT event_id FROM deferred)
+                        AND EXISTS (SELECT 1 FROM payments p WHERE p.pg_payment_id = c.pg_payment_id))
+                    OR c.received_at < now() - :maxAgeMillis * interval '1 millisecond')
+                RETURNING e.event_id
+            ), retried AS (
+                UPDATE payment_events e SET attempts = e.attempts + 1,
+                    retry_at = now() + LEAST(:maxRetryDelayMillis, :retryDelayMillis * power(2, LEAST(e.attempts, 20)))
+                        * interval '1 millisecond'
+                FROM claimed c
+                WHERE e.event_id = c.event_id AND e.event_id NOT IN (SELECT event_id FROM done)
+            )
+            -- data-modifying CTEs run even though the final SELECT does not read them
+            SELECT count(*) FROM claimed
+            """.formatted(EVENT_RANK);
+
+    private static final String PURGE = """
+            DELETE FROM payment_events
+            WHERE event_id IN (
+                SELECT event_id FROM payment_events
+                WHERE processed_at < ?
+                LIMIT ?)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public int appendEvents(List<PaymentEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX)
+                .append(String.join(", ", Collections.nCopies(events.size(), INSERT_ROW)))
+                .append(" ON CONFLICT (event_id) DO NOTHING");
+
+        List<Object> args = new ArrayList<>(events.size() * 8);
+        for (PaymentEvent event : events) {
+            args.add(event.getEventId());
+            args.add(event.getEventType());
+            args.add(event.getPgPaymentId());
+            args.add(event.getPgStatus());
+            args.add(event.getPgResponseMessage());
+            args.add(timestamp(event.getCreatedAt()));
+            args.add(timestamp(event.getReceivedAt()));
+            args.add(timestamp(event.getRetryAt() != null ? event.getRetryAt() : event.getReceivedAt()));
+        }
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    @Override
+    public int reconcile(int limit, ReconcileRules rules) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limit", limit)
+                .addValue("pendingStatuses", rules.pendingOrderStatuses())
+                .addValue("confirmed", rules.confirmedOrderStatus())
+                .addValue("failed", rules.failedOrderStatus())
+                .addValue("confirmable", rules.confirmableOrderStatuses())
+                .addValue("failable", rules.failableOrderStatuses())
+                .addValue("retryDelayMillis", rules.retryDelayMillis())
+                .addValue("maxRetryDelayMillis", rules.maxRetryDelayMillis())
+                .addValue("maxAgeMillis", rules.maxAgeMillis());
+        Integer claimed = namedParameterJdbcTemplate.queryForObject(RECONCILE, params, Integer.class);
+        return claimed != null ? claimed : 0;
+    }
+
+    @Override
+    public int purgeProcessed(Instant processedBefore, int limit) {
+        return jdbcTemplate.update(PURGE, Timestamp.from(processedBefore), limit);
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
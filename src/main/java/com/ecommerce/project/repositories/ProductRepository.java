@@ -1,16 +1,32 @@
 package com.ecommerce.project.repositories;
 
-import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.ecommerce.project.payload.ProductSearchDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
-    Page<Product> findByCategoryOrderByPriceAsc(Category category, Pageable pageable);
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
+
+    @Query("SELECT new com.ecommerce.project.payload.ProductSearchDocument(p.productId, p.productName, p.description, " +
+            "p.quantity, p.price, p.discount, p.specialPrice, c.categoryName) FROM Product p LEFT JOIN p.category c")
+    List<ProductSearchDocument> findAllSearchDocuments();
+
+    @Query("SELECT new com.ecommerce.project.payload.ProductSearchDocument(p.productId, p.productName, p.description, " +
+            "p.quantity, p.price, p.discount, p.specialPrice, c.categoryName) FROM Product p LEFT JOIN p.category c " +
+            "WHERE p.productId IN ?1")
+    List<ProductSearchDocument> findSearchDocumentsByIds(Collection<Long> productIds);
+
+    @Query("SELECT new com.ecommerce.project.payload.ProductSearchDocument(p.productId, p.productName, p.description, " +
+            "p.quantity, p.price, p.discount, p.specialPrice, c.categoryName) FROM Product p JOIN p.category c " +
+            "WHERE c.categoryId = ?1")
+    List<ProductSearchDocument> findSearchDocumentsByCategoryId(Long categoryId);
 
-    Page<Product> findByProductNameContainingIgnoreCase(String keyword, Pageable pageable);
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = ?1")
+    List<Long> findIdsByCategoryId(Long categoryId);
 }
@@ -0,0 +1,26 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Reads only the {@link ProductDTO} columns of the matching products, without loading
+     * the entities or their associations.
+     */
+    List<ProductDTO> findProductDTOs(Specification<Product> spec, Sort sort, long offset, int limit);
+
+    /**
+     * Takes the given quantities (productId -> quantity) out of stock in one batch, each line
+     * only if enough stock is left. Rows are updated in product id order so concurrent
+     * reservations lock them in the same order. Returns the ids of the products that could
+     * not be reserved; the caller must roll back when it is not empty.
+     */
+    List<Long> reserveStock(Map<Long, Integer> quantities);
+}
@@ -5,8 +5,11 @@ import com.ecommerce.project.model.User;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -17,4 +20,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUserName(String username);
 
     boolean existsByEmail(String email);
+
+    // Which of the two unique fields are already in use, answered from both unique indexes in one query
+    @Query("SELECT CASE WHEN u.userName = ?1 THEN 'username' ELSE 'email' END FROM User u " +
+            "WHERE u.userName = ?1 OR u.email = ?2")
+    List<String> findTakenFields(String username, String email);
+
+    @Query("SELECT u.userName, u.email FROM User u")
+    List<Object[]> findAllUserNamesAndEmails();
+
+    @Query("SELECT u.userName, u.roleVersion, u.rolesChangedAt FROM User u WHERE u.rolesChangedAt > ?1")
+    List<Object[]> findRoleVersionsChangedAfter(Instant changedAfter);
 }
@@ -1,15 +1,70 @@
 package com.ecommerce.project.security.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    // <sha256>.<ext> uploads and their <sha256>-<variant>.jpg copies, optionally precompressed
+    private static final String CONTENT_ADDRESSED_NAME = "[0-9a-f]{64}(?:-[a-z]+)?\\.[a-z0-9]+(?:\\.(?:gz|br))?";
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile(CONTENT_ADDRESSED_NAME);
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    // the folder uploads are stored in
+    @Value("${product.image}")
+    private String imageFolder;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/images/**").addResourceLocations("file:images/");
+        String location = "file:" + (imageFolder.endsWith("/") ? imageFolder : imageFolder + "/");
+        // Resource handlers only set Cache-Control on files they serve, so a 404 for a
+        // hash-named path is not cached as immutable. The more specific patterns win.
+        addImageHandler(registry, "/images/{file:" + CONTENT_ADDRESSED_NAME + "}", location, IMMUTABLE);
+        addImageHandler(registry, "/images/variants/{file:" + CONTENT_ADDRESSED_NAME + "}", location + "variants/", IMMUTABLE);
+        addImageHandler(registry, "/images/**", location, REVALIDATE);
+    }
+
+    private static void addImageHandler(ResourceHandlerRegistry registry, String pathPattern, String location,
+                                        CacheControl cacheControl) {
+        // Range requests and conditional GETs are handled by the resource handler, .gz/.br
+        // sidecar files are served when the client accepts that encoding
+        registry.addResourceHandler(pathPattern).addResourceLocations(location)
+                .setCacheControl(cacheControl)
+                .setEtagGenerator(WebMvcConfig::imageEtag)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+    }
 
+    /**
+     * Content-addressed files are named by their hash, so the name is a strong validator.
+     * Other files fall back to modification time and length.
+     */
+    private static String imageEtag(Resource resource) {
+        String fileName = resource.getFilename();
+        if (fileName != null && CONTENT_ADDRESSED.matcher(fileName).matches()) {
+            return fileName;
+        }
+        try {
+            return Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -8,8 +8,14 @@ import com.ecommerce.project.repositories.RoleRepository;
 import com.ecommerce.project.repositories.UserRepository;
 import com.ecommerce.project.security.jwt.AuthEntryPointJwt;
 import com.ecommerce.project.security.jwt.AuthTokenFilter;
+import com.ecommerce.project.security.ratelimit.RateLimitFilter;
+import com.ecommerce.project.security.ratelimit.RateLimitProperties;
+import com.ecommerce.project.security.services.PooledPasswordEncoder;
+import com.ecommerce.project.security.services.RoleChangeTracker;
 import com.ecommerce.project.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -39,14 +45,23 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter(){
         return new AuthTokenFilter();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength,
+                                           @Value("${security.password.pool-size:2}") int poolSize,
+                                           @Value("${security.password.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password.timeout-ms:5000}") long timeoutMillis) {
+        return new PooledPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, timeoutMillis, meterRegistry);
     }
 
     @Bean
@@ -82,12 +97,15 @@ public class WebSecurityConfig {
                         .requestMatchers("/h2-console/**").permitAll()
                         .requestMatchers("/swagger-ui/**").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
+                        .requestMatchers("/api/webhooks/**").permitAll()
 //                        .requestMatchers("/api/admin/**").permitAll()
+                        .requestMatchers("/api/admin/orders/**").hasRole("ADMIN")
                         .requestMatchers("/api/test/**").permitAll()
                         .requestMatchers("/images/**").permitAll()
                         .anyRequest().authenticated());
 
             http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+            http.addFilterAfter(new RateLimitFilter(rateLimitProperties, meterRegistry), AuthTokenFilter.class);
             http.headers(headers->headers.frameOptions(
                     frameOptionsConfig -> frameOptionsConfig.sameOrigin()));
             return http.build();
@@ -105,7 +123,8 @@ public class WebSecurityConfig {
     }
 
     @Bean
-    public CommandLineRunner initData(RoleRepository roleRepository, UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public CommandLineRunner initData(RoleRepository roleRepository, UserRepository userRepository, PasswordEncoder passwordEncoder,
+                                      RoleChangeTracker roleChangeTracker, UserDetailsServiceImpl userDetailsService) {
         return args -> {
             // Retrieve or create roles
             Role userRole = roleRepository.findByRoleName(AppRole.ROLE_USER)
@@ -149,18 +168,24 @@ public class WebSecurityConfig {
 
             // Update roles for existing users
             userRepository.findByUserName("user1").ifPresent(user -> {
-                user.setRoles(userRoles);
-                userRepository.save(user);
+                if (!user.getRoles().equals(userRoles)) {
+                    roleChangeTracker.changeRoles(user, userRoles);
+                    userDetailsService.evict(user.getUserName());
+                }
             });
 
             userRepository.findByUserName("seller1").ifPresent(seller -> {
-                seller.setRoles(sellerRoles);
-                userRepository.save(seller);
+                if (!seller.getRoles().equals(sellerRoles)) {
+                    roleChangeTracker.changeRoles(seller, sellerRoles);
+                    userDetailsService.evict(seller.getUserName());
+                }
             });
 
             userRepository.findByUserName("admin").ifPresent(admin -> {
-                admin.setRoles(adminRoles);
-                userRepository.save(admin);
+                if (!admin.getRoles().equals(adminRoles)) {
+                    roleChangeTracker.changeRoles(admin, adminRoles);
+                    userDetailsService.evict(admin.getUserName());
+                }
             });
         };
     }
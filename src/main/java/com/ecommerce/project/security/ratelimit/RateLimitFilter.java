@@ -0,0 +1,104 @@
+package com.ecommerce.project.security.ratelimit;
+
+import com.ecommerce.project.security.services.UserDetailsImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the controllers. Each request is charged to a token bucket
+ * of the first matching policy, per logged-in user or, for anonymous requests, per client IP.
+ * Requests over the limit get 429 with a {@code Retry-After} header.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final List<Limit> limits;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.limits = properties.getPolicies().stream()
+                .map(policy -> new Limit(policy,
+                        PathPatternParser.defaultInstance.parse(policy.getPattern()),
+                        new TokenBuckets(policy.getCapacity(), policy.getRefillPerSecond(), properties.getMaxBuckets()),
+                        Counter.builder("rate.limit.rejected")
+                                .tag("policy", policy.getName())
+                                .register(meterRegistry)))
+                .toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Limit limit = enabled ? limitFor(request) : null;
+        if (limit != null) {
+            TokenBucket bucket = limit.buckets().get(clientKey(request));
+            long waitNanos = bucket.tryConsume();
+            if (waitNanos > 0) {
+                limit.rejected().increment();
+                reject(request, response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Limit limitFor(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Limit limit : limits) {
+            List<String> methods = limit.policy().getMethods();
+            if ((methods.isEmpty() || methods.stream().anyMatch(request.getMethod()::equalsIgnoreCase))
+                    && limit.pattern().matches(path)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return "user:" + user.getUsername();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", "Rate limit exceeded, retry after " + retryAfterSeconds + " seconds");
+        body.put("path", request.getServletPath());
+
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private record Limit(RateLimitProperties.Policy policy, PathPattern pattern,
+                         TokenBuckets buckets, Counter rejected) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.project.security.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limit policies, bound from {@code rate-limit.*}. The first policy whose pattern
+ * (and method, when given) matches a request applies; requests matching none are not limited.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // buckets kept per policy, idle and then least recently used ones are dropped beyond this
+    private int maxBuckets = 100000;
+
+    private List<Policy> policies = new ArrayList<>();
+
+    @Data
+    public static class Policy {
+        private String name;
+        private String pattern;
+        private List<String> methods = new ArrayList<>();
+        private int capacity;
+        private double refillPerSecond;
+    }
+}
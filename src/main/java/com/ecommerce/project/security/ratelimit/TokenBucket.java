@@ -0,0 +1,52 @@
+package com.ecommerce.project.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept in a single atomic long, updated with compare-and-set. Instead of a
+ * token count it stores the time at which the bucket will be full again (the GCRA form of
+ * a token bucket): a request is admitted when taking one more token would not push that
+ * time further than {@code capacity} tokens into the future.
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        this.nanosPerToken = (long) (1_000_000_000L / refillPerSecond);
+        this.burstNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes one token. Returns 0 when admitted, otherwise the nanoseconds until a token is available.
+     */
+    public long tryConsume() {
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Whether the bucket has refilled completely, in which case it behaves exactly like a new one.
+     */
+    public boolean isFull() {
+        return fullAt.get() - System.nanoTime() <= 0;
+    }
+
+    long fullAt() {
+        return fullAt.get();
+    }
+}
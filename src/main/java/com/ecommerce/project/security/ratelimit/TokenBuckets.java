@@ -0,0 +1,66 @@
+package com.ecommerce.project.security.ratelimit;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The buckets of one policy, keyed by client. Lookups go straight to a {@link ConcurrentHashMap},
+ * so concurrent first requests of a client share one bucket and the hot path takes no lock
+ * beyond the map's own bin lock on creation.
+ * <p>
+ * Above {@code maxBuckets} one caller trims the map: full buckets go first, since dropping them
+ * loses nothing, then the ones that were full again earliest, which approximates least recently used.
+ */
+class TokenBuckets {
+
+    // trim below the bound, so trimming does not run again on the next new client
+    private static final double TRIM_TO = 0.9;
+
+    private final int capacity;
+    private final double refillPerSecond;
+    private final int maxBuckets;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    TokenBuckets(int capacity, double refillPerSecond, int maxBuckets) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.maxBuckets = maxBuckets;
+    }
+
+    TokenBucket get(String key) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        // trimmed before adding, so the new bucket (full until its first use) is not dropped with the idle ones
+        if (buckets.size() >= maxBuckets && trimming.compareAndSet(false, true)) {
+            try {
+                trim();
+            } finally {
+                trimming.set(false);
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerSecond));
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private void trim() {
+        buckets.entrySet().removeIf(entry -> entry.getValue().isFull());
+        int excess = buckets.size() - (int) (maxBuckets * TRIM_TO);
+        if (excess <= 0) {
+            return;
+        }
+        buckets.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().fullAt()))
+                .limit(excess)
+                .toList()
+                .forEach(entry -> buckets.remove(entry.getKey(), entry.getValue()));
+    }
+}
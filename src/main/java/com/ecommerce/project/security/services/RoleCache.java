@@ -0,0 +1,36 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.model.AppRole;
+import com.ecommerce.project.model.Role;
+import com.ecommerce.project.repositories.RoleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Role rows never change once initData has seeded them, so their ids are looked up once.
+ * Callers get a reference bound to their own persistence context (the request's, with
+ * open-in-view), which can be attached to a new user without loading the role again.
+ */
+@Component
+public class RoleCache {
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<AppRole, Integer> roleIds = new ConcurrentHashMap<>();
+
+    public Role getReference(AppRole appRole) {
+        Integer roleId = roleIds.computeIfAbsent(appRole, name -> roleRepository.findByRoleName(name)
+                .map(Role::getRoleId)
+                .orElseThrow(() -> new RuntimeException("Error: Role is not found")));
+        return entityManager.getReference(Role.class, roleId);
+    }
+}
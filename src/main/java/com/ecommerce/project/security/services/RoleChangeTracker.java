@@ -0,0 +1,106 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.model.Role;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether the roles signed into a token are still current. Every role change bumps
+ * the user's persisted role version, and tokens carry the version they were issued with.
+ * Only users whose roles changed within a token lifetime can hold an outdated token, so only
+ * their versions are kept in memory; changes made by other instances are picked up by polling
+ * the users table, like {@link TokenRevocationService} does for sign-outs.
+ */
+@Component
+public class RoleChangeTracker {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${spring.app.jwtExpirationMs}")
+    private long jwtExpirationMs;
+
+    // re-reads a window before the last poll, for rows committed late or written with a skewed clock
+    @Value("${jwt.roles.poll-overlap-ms:30000}")
+    private long pollOverlapMillis;
+
+    // username -> latest role change, for users whose roles changed within a token lifetime
+    private final Map<String, RoleChange> changes = new ConcurrentHashMap<>();
+
+    private volatile Instant polledAt;
+
+    @PostConstruct
+    public void load() {
+        Instant now = Instant.now();
+        addAll(userRepository.findRoleVersionsChangedAfter(now.minusMillis(jwtExpirationMs)));
+        polledAt = now;
+    }
+
+    /**
+     * Stores the user with the given roles and a new role version, so tokens issued
+     * with the old roles stop being trusted.
+     */
+    public User changeRoles(User user, Set<Role> roles) {
+        user.setRoles(roles);
+        user.setRoleVersion(user.getRoleVersion() + 1);
+        user.setRolesChangedAt(Instant.now());
+        User saved = userRepository.save(user);
+        add(saved.getUserName(), saved.getRoleVersion(), saved.getRolesChangedAt());
+        return saved;
+    }
+
+    /**
+     * Whether roles issued to the user with the given role version are still current.
+     */
+    public boolean isCurrent(String username, Integer roleVersion) {
+        if (roleVersion == null) {
+            return false;
+        }
+        RoleChange change = changes.get(username);
+        // no change within a token lifetime, so every unexpired token has the current version
+        return change == null || change.roleVersion() == roleVersion;
+    }
+
+    /**
+     * Adds the role changes other instances stored since the previous poll.
+     */
+    @Scheduled(fixedDelayString = "${jwt.roles.poll-ms:5000}")
+    public void pollRoleChanges() {
+        Instant now = Instant.now();
+        List<Object[]> changed = userRepository.findRoleVersionsChangedAfter(polledAt.minusMillis(pollOverlapMillis));
+        addAll(changed);
+        polledAt = now;
+    }
+
+    /**
+     * Forgets changes older than any unexpired token.
+     */
+    @Scheduled(fixedDelayString = "${jwt.roles.purge-ms:600000}")
+    public void purgeExpired() {
+        Instant oldestToken = Instant.now().minusMillis(jwtExpirationMs);
+        changes.values().removeIf(change -> change.changedAt().isBefore(oldestToken));
+    }
+
+    private void addAll(List<Object[]> rows) {
+        rows.forEach(row -> add((String) row[0], (Integer) row[1], (Instant) row[2]));
+    }
+
+    private void add(String username, int roleVersion, Instant changedAt) {
+        changes.merge(username, new RoleChange(roleVersion, changedAt),
+                (known, polled) -> polled.roleVersion() > known.roleVersion() ? polled : known);
+    }
+
+    private record RoleChange(int roleVersion, Instant changedAt) {
+    }
+}
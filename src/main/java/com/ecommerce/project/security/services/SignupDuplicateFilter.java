@@ -0,0 +1,70 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Bloom filter of the usernames and emails in use. A signup whose username and email are
+ * both definitely unused skips the duplicate query; anything else, including every signup
+ * before the filter is loaded, still checks the database.
+ */
+@Component
+public class SignupDuplicateFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SignupDuplicateFilter.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${signup.bloom.expected-users:1000000}")
+    private long expectedUsers;
+
+    private volatile BloomFilter bloomFilter;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Object[]> users = userRepository.findAllUserNamesAndEmails();
+        BloomFilter loaded = new BloomFilter(
+                Math.max(expectedUsers, users.size() * 2L) * 2, FALSE_POSITIVE_RATE); // a username and an email per user
+        users.forEach(user -> {
+            loaded.put(userNameKey((String) user[0]));
+            loaded.put(emailKey((String) user[1]));
+        });
+        bloomFilter = loaded;
+        logger.info("Signup duplicate filter loaded with {} users", users.size());
+    }
+
+    public boolean mightBeTaken(String userName, String email) {
+        BloomFilter filter = bloomFilter;
+        return filter == null
+                || filter.mightContain(userNameKey(userName))
+                || filter.mightContain(emailKey(email));
+    }
+
+    public void add(String userName, String email) {
+        BloomFilter filter = bloomFilter;
+        if (filter != null) {
+            filter.put(userNameKey(userName));
+            filter.put(emailKey(email));
+        }
+    }
+
+    private static String userNameKey(String userName) {
+        return "u:" + userName;
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + email;
+    }
+}
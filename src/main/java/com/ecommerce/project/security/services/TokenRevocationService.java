@@ -0,0 +1,115 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.model.RevokedToken;
+import com.ecommerce.project.repositories.RevokedTokenRepository;
+import com.ecommerce.project.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deny list of signed-out token ids (jti). Revocations are stored in the revoked_tokens
+ * table and kept in memory until the token would have expired anyway. A Bloom filter in
+ * front of the map answers the common case, a token that was never revoked, without
+ * touching the map or the database. Revocations made by other instances are picked up by
+ * polling the table for recently revoked rows.
+ */
+@Component
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${jwt.revocation.expected-tokens:100000}")
+    private long expectedTokens;
+
+    // re-reads a window before the last poll, for rows committed late or written with a skewed clock
+    @Value("${jwt.revocation.poll-overlap-ms:30000}")
+    private long pollOverlapMillis;
+
+    // tokenId -> expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter bloomFilter;
+
+    private volatile Instant polledAt;
+
+    @PostConstruct
+    public void load() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findByExpiresAtAfter(now)
+                .forEach(token -> revoked.put(token.getTokenId(), token.getExpiresAt().toEpochMilli()));
+        rebuildFilter();
+        polledAt = now;
+        logger.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null || expiresAt == null) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt.toInstant(), Instant.now()));
+        add(tokenId, expiresAt.getTime());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Adds the revocations other instances stored since the previous poll.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-ms:5000}")
+    public void pollRevocations() {
+        Instant now = Instant.now();
+        List<RevokedToken> tokens = revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(
+                polledAt.minusMillis(pollOverlapMillis), now);
+        tokens.forEach(token -> add(token.getTokenId(), token.getExpiresAt().toEpochMilli()));
+        polledAt = now;
+    }
+
+    /**
+     * Drops expired revocations from memory and from the table. Bloom filters cannot remove
+     * entries, so the filter is rebuilt from what is left.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        rebuildFilter();
+        int deleted = revokedTokenRepository.deleteExpired(Instant.ofEpochMilli(now));
+        if (deleted > 0) {
+            logger.info("Purged {} expired revoked tokens", deleted);
+        }
+    }
+
+    private synchronized void add(String tokenId, long expiresAt) {
+        if (revoked.put(tokenId, expiresAt) == null) {
+            bloomFilter.put(tokenId);
+        }
+    }
+
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, revoked.size() * 2L), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+    }
+}
@@ -27,6 +27,7 @@ public class UserDetailsImpl implements UserDetails {
     @JsonIgnore
     private String password;
     private Collection<?extends GrantedAuthority> authorities;
+    private int roleVersion;
 
     public UserDetailsImpl(Long id, String userName, String email, String password, Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
@@ -39,13 +40,15 @@ public class UserDetailsImpl implements UserDetails {
     public static UserDetailsImpl build(User user){
         List<GrantedAuthority> authorities = user.getRoles().stream()
                 .map(role-> new SimpleGrantedAuthority(role.getRoleName().name())).collect(Collectors.toList());
-        return new UserDetailsImpl(
+        UserDetailsImpl userDetails = new UserDetailsImpl(
                 user.getUserId(),
                 user.getUserName(),
                 user.getEmail(),
                 user.getPassword(),
                 authorities
         );
+        userDetails.setRoleVersion(user.getRoleVersion());
+        return userDetails;
     }
 
     @Override
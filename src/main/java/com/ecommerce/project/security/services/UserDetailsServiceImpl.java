@@ -2,26 +2,76 @@ package com.ecommerce.project.security.services;
 
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.repositories.UserRepository;
-import jakarta.transaction.Transactional;
+import com.ecommerce.project.util.BoundedCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+/**
+ * Loads users for authentication through a bounded, expiring cache keyed by username.
+ * Anything that changes a user's roles or password must call {@link #evict(String)}.
+ */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${user.details.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${user.details.cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private BoundedCache<String, UserDetailsImpl> userDetailsCache;
+
+    private Timer loadTimer;
+
+    @PostConstruct
+    public void init() {
+        userDetailsCache = new BoundedCache<>(maxSize, ttlMillis);
+        loadTimer = Timer.builder("user.details.cache.load")
+                .description("Time to load a user and its roles on a cache miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("user.details.cache.hits", userDetailsCache, BoundedCache::hitCount)
+                .register(meterRegistry);
+        FunctionCounter.builder("user.details.cache.misses", userDetailsCache, BoundedCache::missCount)
+                .register(meterRegistry);
+        Gauge.builder("user.details.cache.hit.ratio", userDetailsCache, cache -> {
+                    long requests = cache.hitCount() + cache.missCount();
+                    return requests == 0 ? 0.0 : (double) cache.hitCount() / requests;
+                })
+                .register(meterRegistry);
+        Gauge.builder("user.details.cache.size", userDetailsCache, BoundedCache::size)
+                .register(meterRegistry);
+    }
+
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::loadUser);
+    }
+
+    public void evict(String username) {
+        userDetailsCache.invalidate(username);
+    }
 
-        User user = userRepository.findByUserName(username).
-                orElseThrow(()->  new UsernameNotFoundException("user not found with username"+ username));
+    private UserDetailsImpl loadUser(String username) {
+        return loadTimer.record(() -> {
+            User user = userRepository.findByUserName(username).
+                    orElseThrow(()->  new UsernameNotFoundException("user not found with username"+ username));
 
-        return UserDetailsImpl.build(user);
+            return UserDetailsImpl.build(user);
+        });
     }
 }
@@ -2,12 +2,12 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIExceptions;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.AddressMapper;
 import com.ecommerce.project.model.Address;
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.payload.AddressDTO;
 import com.ecommerce.project.repositories.AddressRepository;
 import com.ecommerce.project.repositories.UserRepository;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -16,7 +16,7 @@ import java.util.List;
 @Service
 public class AddressServiceImpl implements AddressService{
     @Autowired
-    ModelMapper modelMapper;
+    AddressMapper addressMapper;
 
     @Autowired
     AddressRepository addressRepository;
@@ -26,7 +26,7 @@ public class AddressServiceImpl implements AddressService{
 
     @Override
     public AddressDTO createAddress(AddressDTO addressDTO, User user) {
-        Address address = modelMapper.map(addressDTO, Address.class);
+        Address address = addressMapper.toAddress(addressDTO);
 
         List<Address> addressList = user.getAddresses();
         addressList.add(address);
@@ -35,7 +35,7 @@ public class AddressServiceImpl implements AddressService{
         address.setUser(user);
 
         Address savedAddress = addressRepository.save(address);
-        return modelMapper.map(savedAddress, AddressDTO.class);
+        return addressMapper.toAddressDTO(savedAddress);
     }
 
     @Override
@@ -45,14 +45,14 @@ public class AddressServiceImpl implements AddressService{
             throw new APIExceptions("No address found");
         }
         return addresses.stream().
-                map(address ->modelMapper.map(address, AddressDTO.class)).toList();
+                map(addressMapper::toAddressDTO).toList();
     }
 
     @Override
     public AddressDTO getAddressById(Long addressId) {
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(()-> new ResourceNotFoundException("Address","addressId",addressId));
-        return modelMapper.map(address, AddressDTO.class);
+        return addressMapper.toAddressDTO(address);
     }
 
     @Override
@@ -62,14 +62,14 @@ public class AddressServiceImpl implements AddressService{
             throw new APIExceptions("No address found");
         }
         return addresses.stream().
-                map(address ->modelMapper.map(address, AddressDTO.class)).toList();
+                map(addressMapper::toAddressDTO).toList();
     }
 
     @Override
     public AddressDTO updateAddressById(Long addressId, AddressDTO addressDTO) {
        Address addressFromDb = addressRepository.findById(addressId)
                .orElseThrow(()-> new ResourceNotFoundException("Address Id","addressId", addressId));
-       Address add = modelMapper.map(addressDTO, Address.class);
+       Address add = addressMapper.toAddress(addressDTO);
         addressFromDb.setCity(add.getCity());
         addressFromDb.setPincode(add.getPincode());
         addressFromDb.setCountry(add.getCountry());
@@ -81,7 +81,7 @@ public class AddressServiceImpl implements AddressService{
        user.getAddresses().removeIf(address->address.getAddressId().equals(addressId));
        user.getAddresses().add(updatedAddress);
        userRepository.save(user);
-        return modelMapper.map(updatedAddress, AddressDTO.class);
+        return addressMapper.toAddressDTO(updatedAddress);
     }
 
     @Override
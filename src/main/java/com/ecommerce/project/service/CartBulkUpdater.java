@@ -0,0 +1,181 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.repositories.CartItemRepository;
+import com.ecommerce.project.repositories.CartRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Applies product changes to every cart holding the product with set-based statements,
+ * a batch of carts at a time, instead of loading and saving the carts one by one.
+ * Products held in more carts than one batch are repriced in the background; removals
+ * run in the caller's thread since the product row can only go once no cart refers to it.
+ * Queued repricing is not persisted: the product row holds the price, so at startup every
+ * product whose cart lines disagree with it is repriced again.
+ */
+@Component
+public class CartBulkUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartBulkUpdater.class);
+
+    @Value("${cart.bulk.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // productId -> repricing of that product, so a later price never overtakes an earlier one
+    private final Map<Long, ProductRepricing> pendingRepricing = new ConcurrentHashMap<>();
+
+    private final ExecutorService repricer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-repricer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Sets the cart price of the product to the given price in every cart and adjusts the
+     * cart totals by the difference.
+     */
+    public void repriceProduct(Long productId, Double price) {
+        while (true) {
+            ProductRepricing repricing = pendingRepricing.computeIfAbsent(productId, id -> new ProductRepricing());
+            // Only callers repricing the same product wait here; the map itself is never locked
+            // during database work
+            synchronized (repricing) {
+                if (pendingRepricing.get(productId) != repricing) {
+                    continue;
+                }
+                if (repricing.queuedJobs == 0) {
+                    List<Long> firstBatch = cartRepository.findCartIdsByProductId(productId, 0L, Limit.of(batchSize + 1));
+                    if (firstBatch.size() <= batchSize) {
+                        try {
+                            repriceBatch(productId, price, firstBatch);
+                        } finally {
+                            pendingRepricing.remove(productId, repricing);
+                        }
+                        return;
+                    }
+                }
+                // Queued under the product's lock, so jobs run in the order the prices arrived
+                repricing.queuedJobs++;
+                try {
+                    repricer.execute(() -> runRepricing(productId, price, repricing));
+                } catch (RuntimeException e) {
+                    finished(productId, repricing);
+                    throw e;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Picks up repricing that a restart interrupted or that failed, using the current price
+     * of every product whose cart lines still carry another one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        for (Object[] row : cartItemRepository.findProductsWithStaleCartPrices()) {
+            repriceProduct((Long) row[0], (Double) row[1]);
+        }
+    }
+
+    /**
+     * Removes the product from every cart and subtracts its line totals from the cart totals.
+     * Returns the number of carts that held the product.
+     */
+    public int removeProduct(Long productId) {
+        int carts = 0;
+        List<Long> cartIds;
+        do {
+            // Removed lines drop out of the lookup, so every batch starts from the first remaining cart
+            cartIds = cartRepository.findCartIdsByProductId(productId, 0L, Limit.of(batchSize));
+            if (!cartIds.isEmpty()) {
+                List<Long> batch = cartIds;
+                transactionTemplate.executeWithoutResult(status -> {
+                    cartRepository.subtractLineTotals(productId, batch);
+                    cartItemRepository.deleteByProductIdAndCartIds(productId, batch);
+                });
+                carts += cartIds.size();
+            }
+        } while (cartIds.size() == batchSize);
+        logger.info("Removed product {} from {} carts", productId, carts);
+        return carts;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        repricer.shutdownNow();
+    }
+
+    private void runRepricing(Long productId, Double price, ProductRepricing repricing) {
+        try {
+            int carts = repriceAll(productId, price);
+            logger.info("Repriced product {} in {} carts", productId, carts);
+        } catch (RuntimeException e) {
+            logger.error("Repricing product {} in carts failed", productId, e);
+        } finally {
+            finished(productId, repricing);
+        }
+    }
+
+    private void finished(Long productId, ProductRepricing repricing) {
+        synchronized (repricing) {
+            if (--repricing.queuedJobs == 0) {
+                pendingRepricing.remove(productId, repricing);
+            }
+        }
+    }
+
+    private int repriceAll(Long productId, Double price) {
+        int carts = 0;
+        Long afterCartId = 0L;
+        List<Long> cartIds;
+        do {
+            cartIds = cartRepository.findCartIdsByProductId(productId, afterCartId, Limit.of(batchSize));
+            if (!cartIds.isEmpty()) {
+                repriceBatch(productId, price, cartIds);
+                carts += cartIds.size();
+                afterCartId = cartIds.get(cartIds.size() - 1);
+            }
+        } while (cartIds.size() == batchSize);
+        return carts;
+    }
+
+    private void repriceBatch(Long productId, Double price, List<Long> cartIds) {
+        if (cartIds.isEmpty()) {
+            return;
+        }
+        // Totals first: the delta is computed from the line prices before they are rewritten
+        transactionTemplate.executeWithoutResult(status -> {
+            cartRepository.addPriceDifferenceToTotals(productId, price, cartIds);
+            cartItemRepository.updateProductPrice(productId, price, cartIds);
+        });
+    }
+
+    private static class ProductRepricing {
+        // guarded by the instance's monitor
+        private int queuedJobs;
+    }
+}
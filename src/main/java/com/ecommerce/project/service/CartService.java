@@ -12,6 +12,8 @@ public interface CartService {
 
     CartDTO getCartByUserId(String emailId, Long cartId);
 
+    CartDTO getCartByEmail(String emailId);
+
     @Transactional
     CartDTO updateProductQuantityInCart(Long productId, Integer quantity);
 
@@ -1,23 +1,21 @@
 package com.ecommerce.project.service;
 import com.ecommerce.project.exceptions.APIExceptions;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.CartMapper;
 import com.ecommerce.project.model.Cart;
 import com.ecommerce.project.model.CartItem;
 import com.ecommerce.project.model.Product;
 import com.ecommerce.project.payload.CartDTO;
-import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.repositories.CartItemRepository;
 import com.ecommerce.project.repositories.CartRepository;
 import com.ecommerce.project.repositories.ProductRepository;
 import com.ecommerce.project.util.AuthUtil;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 public class CartServiceImpl implements CartService{
@@ -32,7 +30,7 @@ public class CartServiceImpl implements CartService{
     CartItemRepository cartItemRepository;
 
     @Autowired
-    ModelMapper modelMapper;
+    CartMapper cartMapper;
 
     @Autowired
     AuthUtil authUtil;
@@ -75,17 +73,7 @@ public class CartServiceImpl implements CartService{
         cart.setTotalPrice(cart.getTotalPrice() + (product.getSpecialPrice()*quantity));
         cartRepository.save(cart);
         // Return updated cart
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-        List<CartItem> cartItems = cart.getCartItems();
-        Stream<ProductDTO> productStream = cartItems.stream().map(
-                item->{
-                    ProductDTO map = modelMapper.map(item.getProduct(), ProductDTO.class);
-                    map.setQuantity(item.getQuantity());
-                    return map;
-                }
-        );
-        cartDTO.setProducts(productStream.toList());
-        return cartDTO;
+        return cartMapper.toCartDTO(cart);
     }
 
     @Override
@@ -94,15 +82,9 @@ public class CartServiceImpl implements CartService{
         if(carts.isEmpty()){
             throw new APIExceptions("No carts exist");
         }
-        List<CartDTO> cartDTOS = carts.stream().map(cart->{
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-            cart.getCartItems().forEach(c->c.getProduct().setQuantity(c.getQuantity()));
-            List<ProductDTO> products = cart.getCartItems().stream()
-                    .map(p-> modelMapper.map(p.getProduct(),ProductDTO.class)).collect(Collectors.toList());
-
-            cartDTO.setProducts(products);
-            return cartDTO;
-        }).collect(Collectors.toList());
+        List<CartDTO> cartDTOS = carts.stream()
+                .map(cartMapper::toCartDTO)
+                .collect(Collectors.toList());
         return cartDTOS;
     }
 
@@ -112,21 +94,26 @@ public class CartServiceImpl implements CartService{
         if(cart == null){
             throw new APIExceptions("No carts exist");
         }
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-        cart.getCartItems().forEach(c->c.getProduct().setQuantity(c.getQuantity()));
-        List<ProductDTO> products = cart.getCartItems().stream()
-                .map(p-> modelMapper.map(p.getProduct(), ProductDTO.class)).toList();
-        cartDTO.setProducts(products);
-        return cartDTO;
+        return cartMapper.toCartDTO(cart);
+    }
+
+    @Override
+    public CartDTO getCartByEmail(String emailId) {
+        Cart cart = cartRepository.findCartByEmail(emailId);
+        if(cart == null){
+            throw new APIExceptions("No carts exist");
+        }
+        return cartMapper.toCartDTO(cart);
     }
 
     @Transactional
     @Override
     public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
-        Cart userCart = cartRepository.findCartByEmail(authUtil.loggedInEmail());
-        Long cartId = userCart.getCartId();
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(()-> new ResourceNotFoundException("Cart", "cartId", cartId));
+        Cart cart = cartRepository.findCartByEmail(authUtil.loggedInEmail());
+        if(cart == null){
+            throw new APIExceptions("No carts exist");
+        }
+        Long cartId = cart.getCartId();
         // Retrieve product details
         Product product = productRepository.findById(productId)
                 .orElseThrow(()-> new ResourceNotFoundException("Product","productId", productId));
@@ -165,16 +152,7 @@ public class CartServiceImpl implements CartService{
             cartItemRepository.deleteById(updateCartItem.getCartItemId());
         }
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-        List<CartItem> cartItems = cart.getCartItems();
-        Stream<ProductDTO> productStream = cartItems.stream()
-                .map(item->{
-                    ProductDTO productDTO = modelMapper.map(item.getProduct(), ProductDTO.class);
-                    productDTO.setQuantity(item.getQuantity());
-                    return productDTO;
-                });
-        cartDTO.setProducts(productStream.toList());
-        return cartDTO;
+        return cartMapper.toCartDTO(cart);
     }
 
     @Transactional
@@ -3,16 +3,20 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIExceptions;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.CategoryMapper;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.payload.CategoryDTO;
 import com.ecommerce.project.payload.CategoryResponse;
 import com.ecommerce.project.repositories.CategoryRepository;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import java.util.List;
 
@@ -24,16 +28,37 @@ public class CategoryServiceImpl implements CategoryService{
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private ListingCountEstimator listingCountEstimator;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
 
     @Override
-    public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize,String sortBy, String sortOrder) {
+    public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize,String sortBy, String sortOrder, String cursor, boolean includeTotals) {
+
+        if(cursor != null){
+            return getCategoriesAfterCursor(pageSize, sortBy, sortOrder, cursor);
+        }
 
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
+
+        if(!includeTotals){
+            return getCategoriesSlice(pageDetails);
+        }
+
         Page<Category> categoryPage = categoryRepository.findAll(pageDetails);
         List<Category> categories = categoryPage.getContent();
 
@@ -41,7 +66,7 @@ public class CategoryServiceImpl implements CategoryService{
             throw new APIExceptions("No category created till now");
         }
         List<CategoryDTO> categoryDTOS = categories.stream()
-                .map(category -> modelMapper.map(category, CategoryDTO.class))
+                .map(categoryMapper::toCategoryDTO)
                 .toList();
         CategoryResponse categoryResponse = new CategoryResponse();
         categoryResponse.setContent(categoryDTOS);
@@ -53,25 +78,85 @@ public class CategoryServiceImpl implements CategoryService{
         return categoryResponse;
     }
 
+    private CategoryResponse getCategoriesSlice(Pageable pageDetails) {
+        // A slice reads pageSize + 1 rows instead of issuing a count query, the total is a cached estimate
+        Specification<Category> spec = (root, query, criteriaBuilder) ->
+                criteriaBuilder.conjunction();
+        Slice<Category> categorySlice = categoryRepository.findBy(spec, query -> query.slice(pageDetails));
+        if(categorySlice.getContent().isEmpty()){
+            throw new APIExceptions("No category created till now");
+        }
+        Long estimatedTotal = listingCountEstimator.estimate("categories", () -> categoryRepository.count());
+
+        List<CategoryDTO> categoryDTOS = categorySlice.getContent().stream()
+                .map(categoryMapper::toCategoryDTO)
+                .toList();
+        CategoryResponse categoryResponse = new CategoryResponse();
+        categoryResponse.setContent(categoryDTOS);
+        categoryResponse.setPageNumber(categorySlice.getNumber());
+        categoryResponse.setPageSize(categorySlice.getSize());
+        categoryResponse.setLastPage(categorySlice.isLast());
+        if(estimatedTotal != null) {
+            categoryResponse.setTotalElements(estimatedTotal);
+            categoryResponse.setTotalPages((int) ((estimatedTotal + pageDetails.getPageSize() - 1) / pageDetails.getPageSize()));
+        }
+        return categoryResponse;
+    }
+
+    private CategoryResponse getCategoriesAfterCursor(Integer pageSize, String sortBy, String sortOrder, String cursor) {
+        Specification<Category> spec = (root, query, criteriaBuilder) ->
+                criteriaBuilder.conjunction();
+        if(!KeysetCursor.isFirstPage(cursor)) {
+            spec = spec.and(KeysetCursor.decode(cursor, sortBy, sortOrder).after("categoryId"));
+        }
+        Sort sort = KeysetCursor.sort("categoryId", sortBy, sortOrder);
+
+        // One extra row tells whether another page exists, so no count query is needed
+        List<Category> categories = categoryRepository.findBy(spec, query -> query.sortBy(sort).limit(pageSize + 1).all());
+        if(categories.isEmpty() && KeysetCursor.isFirstPage(cursor)){
+            throw new APIExceptions("No category created till now");
+        }
+        boolean lastPage = categories.size() <= pageSize;
+        if(!lastPage) {
+            categories = categories.subList(0, pageSize);
+        }
+
+        List<CategoryDTO> categoryDTOS = categories.stream()
+                .map(categoryMapper::toCategoryDTO)
+                .toList();
+        CategoryResponse categoryResponse = new CategoryResponse();
+        categoryResponse.setContent(categoryDTOS);
+        categoryResponse.setPageSize(pageSize);
+        categoryResponse.setLastPage(lastPage);
+        if(!lastPage) {
+            categoryResponse.setNextCursor(KeysetCursor.encode(categories.get(categories.size() - 1), "categoryId", sortBy, sortOrder));
+        }
+        return categoryResponse;
+    }
+
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
 
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toCategory(categoryDTO);
 
         Category categoryFromDB = categoryRepository.findByCategoryName(category.getCategoryName());
         if(categoryFromDB!= null){
             throw new APIExceptions("Category with the name "+ category.getCategoryName()+" already exists !!!");
         }
         Category savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        return categoryMapper.toCategoryDTO(savedCategory);
     }
 
     @Override
     public CategoryDTO deleteCategory(Long categoryId) {
 
       Category deletedCategoryFromDB   = categoryRepository.findById(categoryId).orElseThrow(()-> new ResourceNotFoundException("Category", "categoryId", categoryId));
+      // the delete cascades to the category's products, so they leave the search index too
+      List<Long> productIds = productRepository.findIdsByCategoryId(categoryId);
       categoryRepository.delete(deletedCategoryFromDB);
-        return modelMapper.map(deletedCategoryFromDB, CategoryDTO.class);
+      productIds.forEach(productSearchIndex::remove);
+      productCache.evictAll();
+        return categoryMapper.toCategoryDTO(deletedCategoryFromDB);
 
 
     }
@@ -79,9 +164,12 @@ public class CategoryServiceImpl implements CategoryService{
     @Override
     public CategoryDTO updateCategory(CategoryDTO categoryDTO, Long categoryId) {
         Category savedCategory= categoryRepository.findById(categoryId).orElseThrow(()-> new ResourceNotFoundException("Category", "categoryId", categoryId));
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toCategory(categoryDTO);
         savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        // indexed products carry the category name
+        productSearchIndex.index(productRepository.findSearchDocumentsByCategoryId(categoryId));
+        productCache.evictAll();
+        return categoryMapper.toCategoryDTO(savedCategory);
 
     }
 }
@@ -1,34 +1,165 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.exceptions.APIExceptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.UUID;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 
+/**
+ * Stores uploaded images under a content-addressed name (SHA-256 of the bytes plus the
+ * extension of the detected type), so the same image uploaded for many products is kept
+ * once. The upload is streamed to a temporary file while hashing and then moved into place.
+ */
 @Service
 public class FileServiceImpl implements FileService{
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${product.image.max-bytes:5242880}")
+    private long maxBytes;
+
+    @Value("${product.image.allowed-types:image/jpeg,image/png,image/gif,image/webp}")
+    private List<String> allowedTypes;
+
     @Override
     public String uploadImage(String path, MultipartFile file) throws IOException {
-        // File names of current / original file
-        String originalFileName = file.getOriginalFilename();
+        if(file.isEmpty()){
+            throw new APIExceptions("Image file is empty");
+        }
+        if(file.getSize() > maxBytes){
+            throw new APIExceptions("Image is larger than " + maxBytes + " bytes");
+        }
+
+        Path folder = Paths.get(path);
+        Files.createDirectories(folder);
+
+        Path tempFile = Files.createTempFile(folder, "upload-", ".tmp");
+        try {
+            String fileName;
+            try (InputStream in = file.getInputStream();
+                 FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                // The type is taken from the file's leading bytes, a declared image type must agree with it
+                byte[] header = in.readNBytes(12);
+                ImageType imageType = ImageType.detect(header);
+                if(imageType == null || !allowedTypes.contains(imageType.mimeType)){
+                    throw new APIExceptions("Only " + String.join(", ", allowedTypes) + " images are accepted");
+                }
+                if(declaresOtherImageType(file.getContentType(), imageType)){
+                    throw new APIExceptions("Declared content type " + file.getContentType()
+                            + " does not match the uploaded " + imageType.mimeType + " image");
+                }
+
+                MessageDigest digest = sha256();
+                digest.update(header);
+                channel.write(ByteBuffer.wrap(header));
+                long written = header.length;
+
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while((read = in.read(buffer)) != -1){
+                    written += read;
+                    if(written > maxBytes){
+                        throw new APIExceptions("Image is larger than " + maxBytes + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while(chunk.hasRemaining()){
+                        channel.write(chunk);
+                    }
+                }
+                fileName = HexFormat.of().formatHex(digest.digest()) + "." + imageType.extension;
+            }
+
+            Path target = folder.resolve(fileName);
+            if(!Files.exists(target)){
+                try {
+                    Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Same image stored concurrently, keep the existing copy
+                }
+            }
+            return fileName;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Clients often send no type, application/octet-stream or a legacy alias such as
+     * image/jpg; only a declared image type naming another format is a mismatch.
+     */
+    private static boolean declaresOtherImageType(String contentType, ImageType detected) {
+        if(contentType == null || contentType.isBlank()){
+            return false;
+        }
+        MediaType declared;
+        try {
+            declared = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        if(!"image".equalsIgnoreCase(declared.getType()) || declared.isWildcardSubtype()){
+            return false;
+        }
+        String subtype = declared.getSubtype().toLowerCase(Locale.ROOT);
+        String canonical = switch (subtype) {
+            case "jpg", "pjpeg" -> "jpeg";
+            case "x-png" -> "png";
+            default -> subtype;
+        };
+        return !("image/" + canonical).equals(detected.mimeType);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-        //Generate a unique file name by UUID
-        String randomId = UUID.randomUUID().toString();
-        String fileName = randomId.concat(originalFileName.substring(originalFileName.lastIndexOf(".")));
-        String filePath = path + File.separator + fileName;
+    private enum ImageType {
+        JPEG("image/jpeg", "jpg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+        PNG("image/png", "png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+        GIF("image/gif", "gif", new byte[]{'G', 'I', 'F', '8'}),
+        WEBP("image/webp", "webp", new byte[]{'R', 'I', 'F', 'F'});
 
-        // Check if path exist and create
-        File folder = new File(path);
-        if(!folder.exists())
-            folder.mkdir();
+        private final String mimeType;
+        private final String extension;
+        private final byte[] magic;
 
-        // Upload to server
-        Files.copy(file.getInputStream(), Paths.get(filePath));
+        ImageType(String mimeType, String extension, byte[] magic) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+            this.magic = magic;
+        }
 
-        return fileName;
+        static ImageType detect(byte[] header) {
+            for (ImageType type : values()) {
+                if (header.length >= type.magic.length
+                        && Arrays.equals(header, 0, type.magic.length, type.magic, 0, type.magic.length)) {
+                    if (type == WEBP && (header.length < 12
+                            || !Arrays.equals(header, 8, 12, new byte[]{'W', 'E', 'B', 'P'}, 0, 4))) {
+                        return null;
+                    }
+                    return type;
+                }
+            }
+            return null;
+        }
     }
 }
@@ -0,0 +1,105 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIExceptions;
+import com.ecommerce.project.exceptions.ServiceUnavailableException;
+import com.ecommerce.project.util.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Deduplicates requests carrying an Idempotency-Key header. The first request with a key
+ * runs and its response is kept for the configured time; replays get that response back
+ * without running again, and duplicates arriving while it is still running wait for it.
+ * A failed execution is forgotten so the client can retry with the same key.
+ */
+@Component
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${idempotency.max-keys:10000}")
+    private int maxKeys;
+
+    @Value("${idempotency.ttl-ms:86400000}")
+    private long ttlMillis;
+
+    @Value("${idempotency.wait-ms:30000}")
+    private long waitMillis;
+
+    private BoundedCache<String, Execution> executions;
+
+    @FunctionalInterface
+    public interface Action<T, E extends Exception> {
+        ResponseEntity<T> run() throws E;
+    }
+
+    @PostConstruct
+    public void init() {
+        executions = new BoundedCache<>(maxKeys, ttlMillis);
+    }
+
+    /**
+     * Runs the action once per key within the scope (the caller and the endpoint). Without a
+     * key the action simply runs. Reusing a key for a different request body is rejected.
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> ResponseEntity<T> execute(String scope, String idempotencyKey, Object request,
+                                                              Action<T, E> action) throws E {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.run();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new APIExceptions(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String key = scope + ":" + idempotencyKey;
+        Execution execution = new Execution(request, new CompletableFuture<>());
+        Execution existing = executions.putIfAbsent(key, execution);
+        if (existing != null) {
+            if (!Objects.equals(existing.request(), request)) {
+                throw new APIExceptions(HEADER + " was already used for a different request");
+            }
+            return (ResponseEntity<T>) await(existing.response());
+        }
+
+        try {
+            ResponseEntity<T> response = action.run();
+            execution.response().complete(response);
+            return response;
+        } catch (Exception | Error e) {
+            executions.invalidateEntriesIf((k, v) -> v == execution);
+            execution.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private ResponseEntity<?> await(CompletableFuture<ResponseEntity<?>> response) {
+        try {
+            return response.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("A request with this " + HEADER + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            // the original request failed; its error is replayed and the key is free again
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new APIExceptions("The original request with this " + HEADER + " failed: " + e.getCause().getMessage());
+        }
+    }
+
+    private record Execution(Object request, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
@@ -0,0 +1,284 @@
+package com.ecommerce.project.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Generates resized JPEG variants of product images in the background, stored as
+ * {@code variants/<image>-<variant>.jpg} next to the originals. Generation is idempotent:
+ * existing variants are skipped, and images still missing variants (queue overflow,
+ * restarts) are picked up again by the backlog scan. Images that cannot be decoded or
+ * exceed the pixel limit get a {@code variants/<image>.failed} marker and are not retried.
+ */
+@Component
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final String VARIANT_FOLDER = "variants";
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    public enum Variant {
+        THUMBNAIL("thumbnail", 150),
+        CARD("card", 400),
+        DETAIL("detail", 1000);
+
+        private final String label;
+        private final int maxDimension;
+
+        Variant(String label, int maxDimension) {
+            this.label = label;
+            this.maxDimension = maxDimension;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    @Value("${product.image}")
+    private String path;
+
+    @Value("${product.image.variants.pool-size:2}")
+    private int poolSize;
+
+    @Value("${product.image.variants.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // decoded images take 4 bytes per pixel, checked from the header before decoding
+    @Value("${product.image.variants.max-pixels:25000000}")
+    private long maxPixels;
+
+    // images queued or being processed, so the backlog scan does not queue them twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    // images whose variants were all found on disk, so listings do not stat them again
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+
+    // images with a failure marker, which never get variants, likewise not looked up again
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues variant generation for the stored image. If the queue is full the image is
+     * left for the next backlog scan.
+     */
+    public void generate(String imageName) {
+        if (!inFlight.add(imageName)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    createVariants(imageName);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not create variants of image {}: {}", imageName, e.getMessage());
+                } finally {
+                    inFlight.remove(imageName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(imageName);
+            logger.debug("Variant queue full, image {} left for the backlog scan", imageName);
+        }
+    }
+
+    /**
+     * File names of the variants, relative to the image folder, once all of them exist.
+     * Empty while they are still being generated or when none can be made (e.g. WebP
+     * originals), in which case only the original should be served.
+     */
+    public Map<String, String> availableVariants(String imageName) {
+        // images being generated have no complete set yet, failed ones never will
+        if (!completed.contains(imageName)
+                && (inFlight.contains(imageName) || hasFailed(imageName) || !hasAllVariants(imageName))) {
+            return Map.of();
+        }
+        Map<String, String> names = new LinkedHashMap<>();
+        for (Variant variant : Variant.values()) {
+            names.put(variant.label, VARIANT_FOLDER + "/" + variantFileName(imageName, variant));
+        }
+        return names;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${product.image.variants.scan-ms:600000}", fixedDelayString = "${product.image.variants.scan-ms:600000}")
+    public void scanBacklog() {
+        Path folder = Paths.get(path);
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            files.filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> !name.endsWith(".tmp") && !hasAllVariants(name) && !hasFailed(name))
+                    .forEach(this::generate);
+        } catch (IOException e) {
+            logger.warn("Could not scan {} for images without variants: {}", folder, e.getMessage());
+        }
+    }
+
+    private boolean hasAllVariants(String imageName) {
+        if (completed.contains(imageName)) {
+            return true;
+        }
+        Path variantFolder = Paths.get(path, VARIANT_FOLDER);
+        boolean complete = Arrays.stream(Variant.values())
+                .allMatch(variant -> Files.exists(variantFolder.resolve(variantFileName(imageName, variant))));
+        if (complete) {
+            completed.add(imageName);
+        }
+        return complete;
+    }
+
+    private boolean hasFailed(String imageName) {
+        if (failed.contains(imageName)) {
+            return true;
+        }
+        boolean markerExists = Files.exists(Paths.get(path, VARIANT_FOLDER, failedMarkerName(imageName)));
+        if (markerExists) {
+            failed.add(imageName);
+        }
+        return markerExists;
+    }
+
+    private void markFailed(String imageName, String reason) throws IOException {
+        logger.warn("No variants created for image {}: {}", imageName, reason);
+        Path variantFolder = Files.createDirectories(Paths.get(path, VARIANT_FOLDER));
+        Files.writeString(variantFolder.resolve(failedMarkerName(imageName)), reason);
+        failed.add(imageName);
+    }
+
+    private void createVariants(String imageName) throws IOException {
+        if (hasAllVariants(imageName) || hasFailed(imageName)) {
+            return;
+        }
+        BufferedImage original;
+        try (ImageInputStream input = ImageIO.createImageInputStream(Paths.get(path, imageName).toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                // No ImageIO reader for the format (e.g. WebP), serve the original only
+                markFailed(imageName, "no decoder for the format");
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    markFailed(imageName, pixels + " pixels exceed the limit of " + maxPixels);
+                    return;
+                }
+                original = reader.read(0);
+            } catch (IIOException e) {
+                markFailed(imageName, "cannot be decoded: " + e.getMessage());
+                return;
+            } finally {
+                reader.dispose();
+            }
+        }
+        Path variantFolder = Files.createDirectories(Paths.get(path, VARIANT_FOLDER));
+        for (Variant variant : Variant.values()) {
+            Path target = variantFolder.resolve(variantFileName(imageName, variant));
+            if (Files.exists(target)) {
+                continue;
+            }
+            Path tempFile = Files.createTempFile(variantFolder, "variant-", ".tmp");
+            try {
+                writeJpeg(resize(original, variant.maxDimension), tempFile);
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage original, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(original.getWidth(), original.getHeight()));
+        int width = Math.max(1, (int) Math.round(original.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * scale));
+
+        // JPEG has no alpha channel, transparent areas become white
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam params = writer.getDefaultWriteParam();
+            params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            params.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), params);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String variantFileName(String imageName, Variant variant) {
+        return baseName(imageName) + "-" + variant.label + ".jpg";
+    }
+
+    private static String failedMarkerName(String imageName) {
+        return baseName(imageName) + ".failed";
+    }
+
+    private static String baseName(String imageName) {
+        int extension = imageName.lastIndexOf('.');
+        return extension > 0 ? imageName.substring(0, extension) : imageName;
+    }
+}
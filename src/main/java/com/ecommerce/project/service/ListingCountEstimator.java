@@ -0,0 +1,89 @@
+package com.ecommerce.project.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Keeps approximate row counts for listing filters so that listings served without a
+ * count query can still report a total. Counts are computed in the background and
+ * refreshed periodically; a filter that is not requested for a while is forgotten.
+ */
+@Component
+public class ListingCountEstimator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingCountEstimator.class);
+
+    @Value("${listing.count.max-filters:1000}")
+    private int maxFilters;
+
+    @Value("${listing.count.idle-ms:600000}")
+    private long idleMillis;
+
+    private final Map<String, Estimate> estimates = new ConcurrentHashMap<>();
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "listing-count-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Returns the last known count for the filter, or null while it is still being computed.
+     */
+    public Long estimate(String filterKey, Supplier<Long> counter) {
+        Estimate estimate = estimates.get(filterKey);
+        if (estimate == null) {
+            if (estimates.size() >= maxFilters) {
+                return null;
+            }
+            Estimate created = new Estimate(counter);
+            estimate = estimates.putIfAbsent(filterKey, created);
+            if (estimate == null) {
+                refresher.execute(() -> refresh(filterKey, created));
+                return null;
+            }
+        }
+        estimate.lastRequested = System.currentTimeMillis();
+        return estimate.count;
+    }
+
+    @Scheduled(fixedDelayString = "${listing.count.refresh-ms:60000}")
+    public void refreshAll() {
+        long idleBefore = System.currentTimeMillis() - idleMillis;
+        estimates.entrySet().removeIf(entry -> entry.getValue().lastRequested < idleBefore);
+        estimates.forEach((filterKey, estimate) -> refresher.execute(() -> refresh(filterKey, estimate)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void refresh(String filterKey, Estimate estimate) {
+        try {
+            estimate.count = estimate.counter.get();
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh count for {}: {}", filterKey, e.getMessage());
+        }
+    }
+
+    private static class Estimate {
+        private final Supplier<Long> counter;
+        private volatile Long count;
+        private volatile long lastRequested = System.currentTimeMillis();
+
+        private Estimate(Supplier<Long> counter) {
+            this.counter = counter;
+        }
+    }
+}
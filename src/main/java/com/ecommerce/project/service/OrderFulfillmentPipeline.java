@@ -0,0 +1,179 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.repositories.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Completes orders recorded by {@link OrderService#submitOrder} in two stages, each on its
+ * own bounded pool: reserving stock, then clearing the ordered products from the cart.
+ * Every stage moves the order's status forward in the same transaction as its work, so the
+ * status tells exactly which stage is left; orders a stage could not take (full queue,
+ * restart) are resumed from their status by the recovery scan.
+ */
+@Component
+public class OrderFulfillmentPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderFulfillmentPipeline.class);
+
+    public static final String RECEIVED = "Order received";
+    public static final String STOCK_RESERVED = "Stock reserved";
+    public static final String ACCEPTED = "Order accepted";
+    public static final String REJECTED = "Order rejected: not enough stock";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductStockService productStockService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${order.pipeline.workers:4}")
+    private int workers;
+
+    @Value("${order.pipeline.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // orders queued or running in a stage, so the recovery scan does not queue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor stockStage;
+
+    private ThreadPoolExecutor cartStage;
+
+    @PostConstruct
+    public void init() {
+        stockStage = stage("order-stock");
+        cartStage = stage("order-cart");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stockStage.shutdownNow();
+        cartStage.shutdownNow();
+    }
+
+    /**
+     * Hands a newly recorded order to the pipeline. Call after the order is committed.
+     */
+    public void submit(Long orderId) {
+        enqueue(stockStage, orderId, this::reserveStock, () -> enqueue(cartStage, orderId, this::clearCart, null));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${order.pipeline.recovery-ms:30000}", fixedDelayString = "${order.pipeline.recovery-ms:30000}")
+    public void resumePending() {
+        orderRepository.findOrderIdsByOrderStatus(RECEIVED, Limit.of(queueCapacity))
+                .forEach(this::submit);
+        orderRepository.findOrderIdsByOrderStatus(STOCK_RESERVED, Limit.of(queueCapacity))
+                .forEach(orderId -> enqueue(cartStage, orderId, this::clearCart, null));
+    }
+
+    private void enqueue(ThreadPoolExecutor stage, Long orderId, Predicate<Long> step, Runnable next) {
+        if (!inFlight.add(orderId)) {
+            return;
+        }
+        try {
+            stage.execute(() -> {
+                boolean advanced = false;
+                try {
+                    advanced = step.test(orderId);
+                } catch (RuntimeException e) {
+                    logger.error("Order {} could not be processed, it will be retried", orderId, e);
+                } finally {
+                    inFlight.remove(orderId);
+                }
+                if (advanced && next != null) {
+                    next.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(orderId);
+            logger.debug("Order pipeline queue full, order {} left for the recovery scan", orderId);
+        }
+    }
+
+    // Stage 1: take the ordered quantities out of stock, or reject the order as a whole
+    private boolean reserveStock(Long orderId) {
+        Boolean reserved = transactionTemplate.execute(status -> {
+            if (orderRepository.updateOrderStatus(orderId, RECEIVED, STOCK_RESERVED) == 0) {
+                return null;
+            }
+            Map<Long, Integer> quantities = new HashMap<>();
+            orderItemRepository.findProductQuantitiesByOrderId(orderId)
+                    .forEach(line -> quantities.merge((Long) line[0], (Integer) line[1], Integer::sum));
+            if (!productStockService.reserveStock(quantities).isEmpty()) {
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        });
+        if (reserved == null) {
+            return false;
+        }
+        if (!reserved) {
+            transactionTemplate.executeWithoutResult(status ->
+                    orderRepository.updateOrderStatus(orderId, RECEIVED, REJECTED));
+            logger.info("Order {} rejected, not enough stock", orderId);
+            return false;
+        }
+        return true;
+    }
+
+    // Stage 2: remove the ordered products from the customer's cart
+    private boolean clearCart(Long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null || orderRepository.updateOrderStatus(orderId, STOCK_RESERVED, ACCEPTED) == 0) {
+                return;
+            }
+            Cart cart = cartRepository.findCartByEmail(order.getEmail());
+            if (cart != null) {
+                Set<Long> productIds = new HashSet<>();
+                orderItemRepository.findProductQuantitiesByOrderId(orderId)
+                        .forEach(line -> productIds.add((Long) line[0]));
+                cartRepository.subtractLineTotalsOfProducts(cart.getCartId(), productIds);
+                cartItemRepository.deleteByCartIdAndProductIds(cart.getCartId(), productIds);
+            }
+        });
+        return true;
+    }
+
+    private ThreadPoolExecutor stage(String name) {
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -1,9 +1,20 @@
 package com.ecommerce.project.service;
 
 import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderResponse;
+import com.ecommerce.project.payload.OrderStatusDTO;
 import jakarta.transaction.Transactional;
 
+import java.time.LocalDate;
+
 public interface OrderService {
     @Transactional
     OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod, String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage);
+
+    @Transactional
+    OrderStatusDTO submitOrder(String emailId, Long addressId, String paymentMethod, String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage);
+
+    OrderStatusDTO getOrderStatus(String emailId, Long orderId);
+
+    OrderResponse getOrderHistory(String emailId, String orderStatus, LocalDate fromDate, LocalDate toDate, Integer pageSize, String cursor);
 }
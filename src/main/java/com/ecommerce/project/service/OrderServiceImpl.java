@@ -1,19 +1,32 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.config.AppConstants;
 import com.ecommerce.project.exceptions.APIExceptions;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.mapper.OrderMapper;
 import com.ecommerce.project.model.*;
 import com.ecommerce.project.payload.OrderDTO;
 import com.ecommerce.project.payload.OrderItemDTO;
+import com.ecommerce.project.payload.OrderResponse;
+import com.ecommerce.project.payload.OrderStatusDTO;
+import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.repositories.*;
+import com.ecommerce.project.util.KeysetCursor;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService{
@@ -33,13 +46,16 @@ public class OrderServiceImpl implements OrderService{
     OrderItemRepository orderItemRepository;
 
     @Autowired
-    ProductRepository productRepository;
+    ProductStockService productStockService;
 
     @Autowired
-    CartService cartService;
+    CartItemRepository cartItemRepository;
 
     @Autowired
-    ModelMapper modelMapper;
+    OrderFulfillmentPipeline orderFulfillmentPipeline;
+
+    @Autowired
+    OrderMapper orderMapper;
     @Override
     @Transactional
     public OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod, String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage) {
@@ -51,29 +67,154 @@ public class OrderServiceImpl implements OrderService{
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(()-> new ResourceNotFoundException("Address","addressId", addressId));
 
+        List<CartItem> cartItems = cart.getCartItems();
+        if(cartItems.isEmpty()){
+            throw new APIExceptions("Cart is empty");
+        }
+
+        // Reserve stock for every line before anything is written, the order fails as a whole otherwise
+        Map<Long, Integer> quantities = new HashMap<>();
+        cartItems.forEach(item -> quantities.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum));
+        List<Long> unavailable = productStockService.reserveStock(quantities);
+        if(!unavailable.isEmpty()){
+            String productNames = cartItems.stream()
+                    .map(CartItem::getProduct)
+                    .filter(product -> unavailable.contains(product.getProductId()))
+                    .map(Product::getProductName)
+                    .distinct()
+                    .collect(Collectors.joining(", "));
+            throw new APIExceptions("Not enough stock for " + productNames);
+        }
+
+        Order savedOrder = recordOrder(cart, address, emailId, paymentMethod, pgName, pgPaymentId, pgStatus, pgResponseMessage,
+                OrderFulfillmentPipeline.ACCEPTED);
+        List<OrderItem> orderItems = savedOrder.getOrderItemList();
+
+        // Clear the Cart
+        clearOrderedProducts(cart, orderItems);
+
+        // Send back the order summary
+
+        OrderDTO orderDTO = orderMapper.toOrderDTO(savedOrder);
+
+        orderItems.forEach(item -> orderDTO.getOrderItems().add(
+                orderMapper.toOrderItemDTO(item)
+        ));
+
+        orderDTO.setAddressId(addressId);
+        return orderDTO;
+    }
+
+    @Override
+    @Transactional
+    public OrderStatusDTO submitOrder(String emailId, Long addressId, String paymentMethod, String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage) {
+        Cart cart = cartRepository.findCartByEmail(emailId);
+        if(cart ==  null){
+            throw new ResourceNotFoundException("Cart","email", emailId);
+        }
+        Address address = addressRepository.findById(addressId)
+                .orElseThrow(()-> new ResourceNotFoundException("Address","addressId", addressId));
+        if(cart.getCartItems().isEmpty()){
+            throw new APIExceptions("Cart is empty");
+        }
+
+        // Only the order is written here, stock and cart are handled by the pipeline once it is committed
+        Order savedOrder = recordOrder(cart, address, emailId, paymentMethod, pgName, pgPaymentId, pgStatus, pgResponseMessage,
+                OrderFulfillmentPipeline.RECEIVED);
+        Long orderId = savedOrder.getOrderId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderFulfillmentPipeline.submit(orderId);
+            }
+        });
+        return new OrderStatusDTO(orderId, savedOrder.getOrderStatus());
+    }
+
+    @Override
+    public OrderStatusDTO getOrderStatus(String emailId, Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .filter(o -> o.getEmail().equals(emailId))
+                .orElseThrow(()-> new ResourceNotFoundException("Order","orderId", orderId));
+        return new OrderStatusDTO(order.getOrderId(), order.getOrderStatus());
+    }
+
+    @Override
+    public OrderResponse getOrderHistory(String emailId, String orderStatus, LocalDate fromDate, LocalDate toDate,
+                                         Integer pageSize, String cursor) {
+        if(pageSize == null || pageSize < 1 || pageSize > AppConstants.MAX_PAGE_SIZE){
+            throw new APIExceptions("pageSize must be between 1 and " + AppConstants.MAX_PAGE_SIZE);
+        }
+        Specification<Order> spec = (root, query, criteriaBuilder) ->
+                criteriaBuilder.conjunction();
+        if(emailId != null && !emailId.isBlank()){
+            spec = spec.and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("email"), emailId));
+        }
+        if(orderStatus != null && !orderStatus.isBlank()){
+            spec = spec.and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("orderStatus"), orderStatus));
+        }
+        if(fromDate != null){
+            spec = spec.and((root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("orderDate"), fromDate));
+        }
+        if(toDate != null){
+            spec = spec.and((root, query, criteriaBuilder) -> criteriaBuilder.lessThanOrEqualTo(root.get("orderDate"), toDate));
+        }
+        // Newest first, seeking on (orderDate, orderId) which the orders indexes end with
+        if(cursor != null && !KeysetCursor.isFirstPage(cursor)){
+            spec = spec.and(KeysetCursor.decode(cursor, "orderDate", "desc").after("orderId"));
+        }
+        Sort sort = KeysetCursor.sort("orderId", "orderDate", "desc");
+
+        // One extra row tells whether another page exists, so no count query is needed
+        List<OrderDTO> orders = orderRepository.findOrderDTOs(spec, sort, pageSize + 1);
+        boolean lastPage = orders.size() <= pageSize;
+        if(!lastPage){
+            orders = orders.subList(0, pageSize);
+        }
+
+        // Items of the whole page in one query
+        if(!orders.isEmpty()){
+            Map<Long, OrderDTO> ordersById = new HashMap<>();
+            orders.forEach(orderDTO -> ordersById.put(orderDTO.getOrderId(), orderDTO));
+            for(Object[] row : orderItemRepository.findItemRowsByOrderIds(ordersById.keySet())){
+                ProductDTO product = new ProductDTO((Long) row[5], (String) row[6], (String) row[7], (String) row[8],
+                        (Integer) row[9], (Double) row[10], (Double) row[11], (Double) row[12]);
+                ordersById.get((Long) row[0]).getOrderItems().add(
+                        new OrderItemDTO((Long) row[1], product, (Integer) row[2], (Double) row[3], (Double) row[4]));
+            }
+        }
+
+        OrderResponse orderResponse = new OrderResponse();
+        orderResponse.setContent(orders);
+        orderResponse.setPageSize(pageSize);
+        orderResponse.setLastPage(lastPage);
+        if(!lastPage){
+            OrderDTO lastOrder = orders.get(orders.size() - 1);
+            orderResponse.setNextCursor(KeysetCursor.encode("orderDate", "desc", lastOrder.getOrderId(), lastOrder.getLocalDate()));
+        }
+        return orderResponse;
+    }
+
+    private Order recordOrder(Cart cart, Address address, String emailId, String paymentMethod, String pgName, String pgPaymentId,
+                              String pgStatus, String pgResponseMessage, String orderStatus) {
         // Create new order with payment info
         Order order = new Order();
         order.setEmail(emailId);
         order.setOrderDate(LocalDate.now());
         order.setTotalAmount(cart.getTotalPrice());
-        order.setOrderStatus("Order accepted");
+        order.setOrderStatus(orderStatus);
         order.setAddress(address);
 
-        Payment payment = new Payment(paymentMethod, pgName, pgPaymentId, pgResponseMessage, pgStatus);
+        Payment payment = new Payment(pgPaymentId, pgStatus, pgResponseMessage, pgName, paymentMethod);
         payment.setOrder(order);
         payment = paymentRepository.save(payment);
         order.setPayment(payment);
         Order savedOrder = orderRepository.save(order);
 
         // Get items from the cart into the order items
-        List<CartItem> cartItems = cart.getCartItems();
-        if(cartItems.isEmpty()){
-            throw new APIExceptions("Cart is empty");
-        }
-
         List<OrderItem> orderItems = new ArrayList<>();
 
-        for (CartItem cartItem: cartItems){
+        for (CartItem cartItem: cart.getCartItems()){
             OrderItem orderItem = new OrderItem();
             orderItem.setProduct(cartItem.getProduct());
             orderItem.setQuantity(cartItem.getQuantity());
@@ -83,28 +224,15 @@ public class OrderServiceImpl implements OrderService{
             orderItems.add(orderItem);
         }
 
-        orderItems = orderItemRepository.saveAll(orderItems);
-        // Update product stock
-
-        cart.getCartItems().forEach(item->{
-            int quantity = item.getQuantity();
-            Product product = item.getProduct();
-            product.setQuantity(product.getQuantity() - quantity);
-            productRepository.save(product);
-
-            // Clear the Cart
-            cartService.deleteProductFromCart(cart.getCartId(), item.getProduct().getProductId());
-        });
-
-        // Send back the order summary
-
-        OrderDTO orderDTO = modelMapper.map(savedOrder, OrderDTO.class);
-
-        orderItems.forEach(item -> orderDTO.getOrderItems().add(
-                modelMapper.map(item, OrderItemDTO.class)
-        ));
+        savedOrder.setOrderItemList(orderItemRepository.saveAll(orderItems));
+        return savedOrder;
+    }
 
-        orderDTO.setAddressId(addressId);
-        return orderDTO;
+    private void clearOrderedProducts(Cart cart, List<OrderItem> orderItems) {
+        Set<Long> productIds = orderItems.stream()
+                .map(item -> item.getProduct().getProductId())
+                .collect(Collectors.toSet());
+        cartRepository.subtractLineTotalsOfProducts(cart.getCartId(), productIds);
+        cartItemRepository.deleteByCartIdAndProductIds(cart.getCartId(), productIds);
     }
 }
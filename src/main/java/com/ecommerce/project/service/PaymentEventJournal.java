@@ -0,0 +1,138 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.ServiceUnavailableException;
+import com.ecommerce.project.model.PaymentEvent;
+import com.ecommerce.project.repositories.PaymentEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Appends webhook events to the payment_events journal with group commit: callers queue
+ * their event and wait, a single writer drains whatever has queued up (up to the batch
+ * size, lingering briefly for more) and writes it with one multi-row insert. The webhook
+ * is acknowledged only once its event is durable, so the provider redelivers anything lost.
+ */
+@Component
+public class PaymentEventJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentEventJournal.class);
+
+    @Autowired
+    private PaymentEventRepository paymentEventRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payment.events.batch-size:200}")
+    private int batchSize;
+
+    @Value("${payment.events.linger-ms:5}")
+    private long lingerMillis;
+
+    @Value("${payment.events.queue-capacity:5000}")
+    private int queueCapacity;
+
+    @Value("${payment.events.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    private BlockingQueue<PendingEvent> queue;
+
+    private Thread writer;
+
+    private DistributionSummary batchSizes;
+
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchSizes = DistributionSummary.builder("payment.events.batch.size")
+                .description("Events written per journal insert")
+                .register(meterRegistry);
+        rejected = Counter.builder("payment.events.rejected")
+                .description("Webhook events not journaled because the queue was full or the write timed out")
+                .register(meterRegistry);
+
+        writer = new Thread(this::writeLoop, "payment-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.interrupt();
+    }
+
+    /**
+     * Queues the event and waits until the batch holding it is committed.
+     */
+    public void append(PaymentEvent event) {
+        PendingEvent pending = new PendingEvent(event, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many payment events, please retry");
+        }
+        try {
+            pending.written().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Payment event could not be stored in time, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while storing the payment event");
+        } catch (ExecutionException e) {
+            throw new ServiceUnavailableException("Payment event could not be stored, please retry");
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                long lingerUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    PendingEvent next = queue.poll(lingerUntil - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.forEach(pending -> pending.written().completeExceptionally(
+                        new IllegalStateException("Payment event writer stopped")));
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingEvent> batch) {
+        try {
+            paymentEventRepository.appendEvents(batch.stream().map(PendingEvent::event).toList());
+            batchSizes.record(batch.size());
+            batch.forEach(pending -> pending.written().complete(null));
+        } catch (RuntimeException e) {
+            logger.error("Could not journal {} payment events", batch.size(), e);
+            batch.forEach(pending -> pending.written().completeExceptionally(e));
+        }
+    }
+
+    private record PendingEvent(PaymentEvent event, CompletableFuture<Void> written) {
+    }
+}
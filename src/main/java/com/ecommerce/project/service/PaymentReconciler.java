@@ -0,0 +1,108 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.repositories.PaymentEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Applies journaled payment events to payments and orders. Each round is a single
+ * set-based statement over a batch of events; rounds repeat while full batches come back,
+ * so a backlog is worked off within one run. Events that arrive before their order is
+ * posted, or while the order is still in the fulfillment pipeline, are retried with
+ * backoff; processed events are purged after the retention period.
+ */
+@Component
+public class PaymentReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciler.class);
+
+    public static final String PAYMENT_CONFIRMED = "Payment confirmed";
+    public static final String PAYMENT_FAILED = "Payment failed";
+
+    @Autowired
+    private PaymentEventRepository paymentEventRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payment.reconcile.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${payment.reconcile.max-rounds:50}")
+    private int maxRounds;
+
+    @Value("${payment.reconcile.retry-ms:5000}")
+    private long retryDelayMillis;
+
+    @Value("${payment.reconcile.max-retry-ms:600000}")
+    private long maxRetryDelayMillis;
+
+    @Value("${payment.reconcile.max-age-ms:86400000}")
+    private long maxAgeMillis;
+
+    @Value("${payment.events.retention-ms:86400000}")
+    private long retentionMillis;
+
+    @Value("${payment.events.purge-batch-size:10000}")
+    private int purgeBatchSize;
+
+    private PaymentEventRepository.ReconcileRules rules;
+
+    private Counter reconciled;
+
+    @PostConstruct
+    public void init() {
+        reconciled = Counter.builder("payment.events.reconciled")
+                .description("Payment events claimed by the reconciler, including ones retried later")
+                .register(meterRegistry);
+        rules = new PaymentEventRepository.ReconcileRules(
+                List.of(OrderFulfillmentPipeline.RECEIVED, OrderFulfillmentPipeline.STOCK_RESERVED),
+                PAYMENT_CONFIRMED,
+                PAYMENT_FAILED,
+                List.of(OrderFulfillmentPipeline.ACCEPTED, PAYMENT_FAILED),
+                List.of(OrderFulfillmentPipeline.ACCEPTED),
+                retryDelayMillis,
+                maxRetryDelayMillis,
+                maxAgeMillis);
+    }
+
+    @Scheduled(initialDelayString = "${payment.reconcile.interval-ms:5000}", fixedDelayString = "${payment.reconcile.interval-ms:5000}")
+    public void reconcile() {
+        int total = 0;
+        for (int round = 0; round < maxRounds; round++) {
+            int processed = paymentEventRepository.reconcile(batchSize, rules);
+            total += processed;
+            if (processed < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            reconciled.increment(total);
+            logger.debug("Reconciled {} payment events", total);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${payment.events.purge-ms:3600000}", fixedDelayString = "${payment.events.purge-ms:3600000}")
+    public void purgeProcessed() {
+        Instant processedBefore = Instant.now().minusMillis(retentionMillis);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = paymentEventRepository.purgeProcessed(processedBefore, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            logger.info("Purged {} processed payment events", total);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.util.BoundedCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for product DTOs and product listing pages. Writes evict only the
+ * entries a product change can affect: its own DTO, the pages that contain it and the
+ * pages whose filter (keyword, category) matches the product before or after the change.
+ * Hit, miss and eviction counters are published as {@code product.cache.*} metrics.
+ */
+@Component
+public class ProductCache {
+
+    @Value("${product.cache.max-products:10000}")
+    private int maxProducts;
+
+    @Value("${product.cache.max-listings:2000}")
+    private int maxListings;
+
+    @Value("${product.cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BoundedCache<Long, ProductDTO> products;
+
+    private BoundedCache<ListingKey, ProductResponse> listings;
+
+    @PostConstruct
+    public void init() {
+        products = new BoundedCache<>(maxProducts, ttlMillis);
+        listings = new BoundedCache<>(maxListings, ttlMillis);
+        registerMetrics("products", products);
+        registerMetrics("listings", listings);
+    }
+
+    public Map<Long, ProductDTO> getProducts(Collection<Long> productIds, Function<Set<Long>, Map<Long, ProductDTO>> loader) {
+        return products.getAll(productIds, loader);
+    }
+
+    public ProductResponse getListing(ListingKey key, Supplier<ProductResponse> loader) {
+        return listings.get(key, k -> loader.get());
+    }
+
+    /**
+     * Evicts everything a change to the product can affect. Pass the state before and after
+     * the change; either is null when the product was created or deleted.
+     */
+    public void evict(Long productId, ProductState before, ProductState after) {
+        products.invalidate(productId);
+        listings.invalidateEntriesIf((key, page) ->
+                contains(page, productId)
+                        || (before != null && key.matches(before))
+                        || (after != null && key.matches(after)));
+    }
+
+    /**
+     * Evicts the product's DTO and the pages showing it, for changes that affect neither
+     * filtering nor ordering (e.g. a new image).
+     */
+    public void evictDisplayed(Long productId) {
+        products.invalidate(productId);
+        listings.invalidateEntriesIf((key, page) -> contains(page, productId));
+    }
+
+    /**
+     * Evicts the product's DTO, the pages showing it and the pages ordered by quantity,
+     * for stock changes.
+     */
+    public void evictStock(Long productId) {
+        products.invalidate(productId);
+        listings.invalidateEntriesIf((key, page) -> contains(page, productId) || "quantity".equals(key.sortBy()));
+    }
+
+    public void evictAll() {
+        products.invalidateAll();
+        listings.invalidateAll();
+    }
+
+    private static boolean contains(ProductResponse page, Long productId) {
+        return page.getContent().stream().anyMatch(product -> productId.equals(product.getProductID()));
+    }
+
+    private void registerMetrics(String cacheName, BoundedCache<?, ?> cache) {
+        FunctionCounter.builder("product.cache.hits", cache, BoundedCache::hitCount)
+                .tag("cache", cacheName).register(meterRegistry);
+        FunctionCounter.builder("product.cache.misses", cache, BoundedCache::missCount)
+                .tag("cache", cacheName).register(meterRegistry);
+        FunctionCounter.builder("product.cache.evictions", cache, BoundedCache::evictionCount)
+                .tag("cache", cacheName).register(meterRegistry);
+        Gauge.builder("product.cache.size", cache, BoundedCache::size)
+                .tag("cache", cacheName).register(meterRegistry);
+    }
+
+    /**
+     * The fields of a product that decide which listings it appears in.
+     */
+    public record ProductState(String productName, String description, Long categoryId, String categoryName) {
+
+        public static ProductState of(Product product) {
+            return new ProductState(
+                    product.getProductName(),
+                    product.getDescription(),
+                    product.getCategory() != null ? product.getCategory().getCategoryId() : null,
+                    product.getCategory() != null ? product.getCategory().getCategoryName() : null);
+        }
+    }
+
+    /**
+     * Identifies one cached listing page. Unused filters are null.
+     */
+    public record ListingKey(String keyword, String category, Long categoryId,
+                             Integer pageNumber, Integer pageSize, String sortBy, String sortOrder,
+                             boolean includeTotals) {
+
+        public ListingKey {
+            keyword = keyword == null || keyword.isEmpty() ? null : keyword;
+            category = category == null || category.isEmpty() ? null : category;
+        }
+
+        boolean matches(ProductState product) {
+            return (keyword == null || ProductSearchIndex.matches(keyword, product.productName(), product.description()))
+                    && (category == null || category.equals(product.categoryName()))
+                    && (categoryId == null || categoryId.equals(product.categoryId()));
+        }
+    }
+}
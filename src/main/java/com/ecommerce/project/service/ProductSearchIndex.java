@@ -0,0 +1,242 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIExceptions;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductSearchDocument;
+import com.ecommerce.project.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenized inverted index over product name and description, used to answer
+ * keyword searches without running {@code LIKE '%keyword%'} against the products table.
+ * A keyword matches a product when every token of the keyword is a prefix of
+ * some token in the product's name or description.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // token -> ids of the products containing it
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+
+    // productId -> indexed snapshot, used for filtering, sorting and removing stale tokens
+    private final Map<Long, ProductSearchDocument> documents = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductSearchDocument> allDocuments = productRepository.findAllSearchDocuments();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            allDocuments.forEach(this::addDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product search index built with {} products and {} tokens", allDocuments.size(), postings.size());
+    }
+
+    public void index(Product product) {
+        ProductSearchDocument document = new ProductSearchDocument(
+                product.getProductId(),
+                product.getProductName(),
+                product.getDescription(),
+                product.getQuantity(),
+                product.getPrice(),
+                product.getDiscount(),
+                product.getSpecialPrice(),
+                product.getCategory() != null ? product.getCategory().getCategoryName() : null
+        );
+        lock.writeLock().lock();
+        try {
+            removeDocument(document.getProductId());
+            addDocument(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the indexed snapshots of the given products, e.g. after a bulk stock update.
+     */
+    public void index(Collection<ProductSearchDocument> updatedDocuments) {
+        lock.writeLock().lock();
+        try {
+            for (ProductSearchDocument document : updatedDocuments) {
+                removeDocument(document.getProductId());
+                addDocument(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of all products matching the keyword (and the category, when given),
+     * ordered by the requested sort field with the product id as tie-breaker. A blank keyword
+     * matches every product; one made only of separators, like "!!!", matches none.
+     */
+    public List<Long> search(String keyword, String category, String sortBy, String sortOrder) {
+        Comparator<ProductSearchDocument> comparator = comparatorFor(sortBy);
+        if (sortOrder.equalsIgnoreCase("desc")) {
+            comparator = comparator.reversed();
+        }
+        List<String> tokens = tokenize(keyword);
+        if (tokens.isEmpty() && !isBlank(keyword)) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> matches = tokens.isEmpty() ? new HashSet<>(documents.keySet()) : matchAll(tokens);
+            List<ProductSearchDocument> hits = new ArrayList<>(matches.size());
+            for (Long productId : matches) {
+                ProductSearchDocument document = documents.get(productId);
+                if (category == null || category.isEmpty() || category.equals(document.getCategoryName())) {
+                    hits.add(document);
+                }
+            }
+            hits.sort(comparator);
+            return hits.stream().map(ProductSearchDocument::getProductId).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the keyword would match a product with the given texts, using the same rules as {@link #search}.
+     */
+    public static boolean matches(String keyword, String... texts) {
+        List<String> tokens = tokenize(keyword);
+        if (tokens.isEmpty()) {
+            return isBlank(keyword);
+        }
+        Set<String> textTokens = new HashSet<>();
+        for (String text : texts) {
+            textTokens.addAll(tokenize(text));
+        }
+        for (String token : tokens) {
+            if (textTokens.stream().noneMatch(textToken -> textToken.startsWith(token))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> matchAll(List<String> tokens) {
+        Set<Long> result = null;
+        for (String token : tokens) {
+            Set<Long> tokenMatches = new HashSet<>();
+            postings.subMap(token, true, token + Character.MAX_VALUE, true)
+                    .values()
+                    .forEach(tokenMatches::addAll);
+            if (result == null) {
+                result = tokenMatches;
+            } else {
+                result.retainAll(tokenMatches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void addDocument(ProductSearchDocument document) {
+        documents.put(document.getProductId(), document);
+        for (String token : tokensOf(document)) {
+            postings.computeIfAbsent(token, t -> new HashSet<>()).add(document.getProductId());
+        }
+    }
+
+    private void removeDocument(Long productId) {
+        ProductSearchDocument previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String token : tokensOf(previous)) {
+            Set<Long> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    private Set<String> tokensOf(ProductSearchDocument document) {
+        Set<String> tokens = new HashSet<>(tokenize(document.getProductName()));
+        tokens.addAll(tokenize(document.getDescription()));
+        return tokens;
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
+
+    private static List<String> tokenize(String text) {
+        if (isBlank(text)) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static Comparator<ProductSearchDocument> comparatorFor(String sortBy) {
+        Comparator<ProductSearchDocument> byField = switch (sortBy) {
+            case "productId" -> nullsFirst(ProductSearchDocument::getProductId);
+            case "productName" -> nullsFirst(ProductSearchDocument::getProductName);
+            case "description" -> nullsFirst(ProductSearchDocument::getDescription);
+            case "quantity" -> nullsFirst(ProductSearchDocument::getQuantity);
+            case "price" -> nullsFirst(ProductSearchDocument::getPrice);
+            case "discount" -> nullsFirst(ProductSearchDocument::getDiscount);
+            case "specialPrice" -> nullsFirst(ProductSearchDocument::getSpecialPrice);
+            default -> throw new APIExceptions("Products cannot be sorted by " + sortBy);
+        };
+        return byField.thenComparing(ProductSearchDocument::getProductId);
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<ProductSearchDocument> nullsFirst(
+            Function<ProductSearchDocument, T> keyExtractor) {
+        return Comparator.comparing(keyExtractor, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+}
@@ -10,9 +10,9 @@ import java.io.IOException;
 public interface ProductService {
     ProductDTO addProduct( ProductDTO product, Long categoryId);
 
-    ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, String category);
+    ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, String category, String cursor, boolean includeTotals);
 
-    ProductResponse getProductByCategory(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Long categoryId);
+    ProductResponse getProductByCategory(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Long categoryId, String cursor);
 
     ProductResponse getProductByKeyWord(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword);
 
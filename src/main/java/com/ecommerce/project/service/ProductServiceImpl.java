@@ -3,17 +3,19 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIExceptions;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
-import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.mapper.ProductMapper;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
 
-import com.ecommerce.project.payload.CartDTO;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.payload.ProductResponse;
-import com.ecommerce.project.repositories.CartRepository;
 import com.ecommerce.project.repositories.CategoryRepository;
 import com.ecommerce.project.repositories.ProductRepository;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.project.util.KeysetCursor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
@@ -21,11 +23,15 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -38,16 +44,28 @@ public class ProductServiceImpl implements  ProductService{
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private CartRepository cartRepository;
+    private ProductMapper productMapper;
 
     @Autowired
-    private CartService cartService;
+    private FileService fileService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ProductSearchIndex productSearchIndex;
 
     @Autowired
-    private FileService fileService;
+    private ListingCountEstimator listingCountEstimator;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CartBulkUpdater cartBulkUpdater;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Value("${product.image}")
     private String path;
@@ -55,6 +73,15 @@ public class ProductServiceImpl implements  ProductService{
     @Value("${image.base.url}")
     private String imageBaseUrl;
 
+    private DistributionSummary cartsPerDeletedProduct;
+
+    @PostConstruct
+    public void init() {
+        cartsPerDeletedProduct = DistributionSummary.builder("product.delete.carts")
+                .description("Carts a deleted product was removed from")
+                .register(meterRegistry);
+    }
+
     @Override
     public ProductDTO addProduct(ProductDTO productDTO, Long categoryId) {
 
@@ -72,14 +99,16 @@ public class ProductServiceImpl implements  ProductService{
         }
 
         if(isProductNotPresent){
-            Product product = modelMapper.map(productDTO, Product.class);
+            Product product = productMapper.toProduct(productDTO);
             product.setImage("default.png");
             product.setCategory(category);
             Double specialPrice = product.getPrice() -( product.getDiscount()  *0.01) * product.getPrice();
             System.out.println(specialPrice);
             product.setSpecialPrice(specialPrice);
             Product savedProduct = productRepository.save(product);
-            return modelMapper.map(savedProduct, ProductDTO.class);
+            productSearchIndex.index(savedProduct);
+            productCache.evict(savedProduct.getProductId(), null, ProductCache.ProductState.of(savedProduct));
+            return productMapper.toProductDTO(savedProduct);
         }else{
             throw new APIExceptions("Product already exist!!!");
         }
@@ -88,35 +117,56 @@ public class ProductServiceImpl implements  ProductService{
 
 
     @Override
-    public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize,  String sortBy, String sortOrder, String keyword, String category) {
+    public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize,  String sortBy, String sortOrder, String keyword, String category, String cursor, boolean includeTotals) {
 
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        if(cursor != null){
+            if(keyword != null && !keyword.isEmpty()) {
+                throw new APIExceptions("Cursor pagination is not supported for keyword searches");
+            }
+            return getProductsAfterCursor(categoryNameFilter(category), pageSize, sortBy, sortOrder, cursor);
+        }
 
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
+        ProductCache.ListingKey listingKey = new ProductCache.ListingKey(keyword, category, null,
+                pageNumber, pageSize, sortBy, sortOrder, includeTotals);
+        return productCache.getListing(listingKey,
+                () -> loadAllProducts(pageNumber, pageSize, sortBy, sortOrder, keyword, category, includeTotals));
+    }
 
+    private Specification<Product> categoryNameFilter(String category) {
         Specification<Product> spec = (root, query, criteriaBuilder) ->
                 criteriaBuilder.conjunction();
-        if(keyword != null && !keyword.isEmpty()) {
-            spec = spec.and(((root, query, criteriaBuilder) ->
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("productName")), "%" + keyword.toLowerCase() + "%")));
-        }
         if(category != null && !category.isEmpty()) {
             spec = spec.and((root, query, criteriaBuilder) ->
                     criteriaBuilder.like(root.get("category").get("categoryName"),category));
         }
+        return spec;
+    }
+
+    private ProductResponse loadAllProducts(Integer pageNumber, Integer pageSize,  String sortBy, String sortOrder, String keyword, String category, boolean includeTotals) {
+
+        if(keyword != null && !keyword.isEmpty()) {
+            return searchProducts(pageNumber, pageSize, sortBy, sortOrder, keyword, category);
+        }
+
+        Specification<Product> spec = categoryNameFilter(category);
+
+        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
 
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
 
-        Page<Product> pageProduct = productRepository.findAll(spec,pageable);
+        if(!includeTotals){
+            return getProductsSlice(spec, pageable, "products|category=" + category);
+        }
 
-        List<Product> products = pageProduct.getContent();
+        return getProductsPage(spec, pageable, true);
+    }
 
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product ->{
+    private ProductResponse getProductsPage(Specification<Product> spec, Pageable pageable, boolean withImagePath) {
+        // Listings select only the DTO columns, the count query runs only when the page does not tell the total
+        List<ProductDTO> content = productRepository.findProductDTOs(spec, pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+        Page<ProductDTO> pageProduct = PageableExecutionUtils.getPage(content, pageable, () -> productRepository.count(spec));
 
-                 ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
-                 productDTO.setImage(constructImagePath(product.getImage()));
-                 return productDTO;
-                }).toList();
+        List<ProductDTO> productDTOS = withImagePath ? withImagePaths(pageProduct.getContent()) : pageProduct.getContent();
         ProductResponse productResponse = new ProductResponse();
         productResponse.setContent(productDTOS);
         productResponse.setPageNumber(pageProduct.getNumber());
@@ -127,53 +177,139 @@ public class ProductServiceImpl implements  ProductService{
         return productResponse;
     }
 
+    private ProductResponse getProductsSlice(Specification<Product> spec, Pageable pageable, String filterKey) {
+        // A slice reads pageSize + 1 rows instead of issuing a count query, the total is a cached estimate
+        List<ProductDTO> products = productRepository.findProductDTOs(spec, pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean lastPage = products.size() <= pageable.getPageSize();
+        if(!lastPage) {
+            products = products.subList(0, pageable.getPageSize());
+        }
+        Long estimatedTotal = listingCountEstimator.estimate(filterKey, () -> productRepository.count(spec));
+
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(withImagePaths(products));
+        productResponse.setPageNumber(pageable.getPageNumber());
+        productResponse.setPageSize(pageable.getPageSize());
+        productResponse.setLastPage(lastPage);
+        if(estimatedTotal != null) {
+            productResponse.setTotalElements(estimatedTotal);
+            productResponse.setTotalPages((int) ((estimatedTotal + pageable.getPageSize() - 1) / pageable.getPageSize()));
+        }
+        return productResponse;
+    }
+
+    private ProductResponse getProductsAfterCursor(Specification<Product> spec, Integer pageSize, String sortBy, String sortOrder, String cursor) {
+        if(!KeysetCursor.isFirstPage(cursor)) {
+            spec = spec.and(KeysetCursor.decode(cursor, sortBy, sortOrder).after("productId"));
+        }
+        Sort sort = KeysetCursor.sort("productId", sortBy, sortOrder);
+
+        // One extra row tells whether another page exists, so no count query is needed
+        List<ProductDTO> products = productRepository.findProductDTOs(spec, sort, 0, pageSize + 1);
+        boolean lastPage = products.size() <= pageSize;
+        if(!lastPage) {
+            products = products.subList(0, pageSize);
+        }
+
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(withImagePaths(products));
+        productResponse.setPageSize(pageSize);
+        productResponse.setLastPage(lastPage);
+        if(!lastPage) {
+            ProductDTO lastProduct = products.get(products.size() - 1);
+            Object lastValue = sortBy.equals("productId")
+                    ? lastProduct.getProductID()
+                    : new BeanWrapperImpl(lastProduct).getPropertyValue(sortBy);
+            productResponse.setNextCursor(KeysetCursor.encode(sortBy, sortOrder, lastProduct.getProductID(), lastValue));
+        }
+        return productResponse;
+    }
+
+    private List<ProductDTO> withImagePaths(List<ProductDTO> products) {
+        products.forEach(productDTO -> {
+            // Variants are only advertised once generated, otherwise clients use the original
+            Map<String, String> variantNames = productDTO.getImage() != null
+                    ? imageVariantService.availableVariants(productDTO.getImage())
+                    : Map.of();
+            if(!variantNames.isEmpty()) {
+                Map<String, String> variants = new LinkedHashMap<>();
+                variantNames.forEach((variant, fileName) -> variants.put(variant, constructImagePath(fileName)));
+                productDTO.setImageVariants(variants);
+            }
+            productDTO.setImage(constructImagePath(productDTO.getImage()));
+        });
+        return products;
+    }
+
     private String constructImagePath(String imageName) {
         return imageBaseUrl.endsWith("/")? imageBaseUrl + imageName : imageBaseUrl + "/" + imageName;
     }
 
 
     @Override
-    public ProductResponse getProductByCategory(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder,Long categoryId) {
+    public ProductResponse getProductByCategory(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder,Long categoryId, String cursor) {
 
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(()-> new ResourceNotFoundException("Category", "categoryId",categoryId));
 
+        if(cursor != null){
+            Specification<Product> spec = (root, query, criteriaBuilder) ->
+                    criteriaBuilder.equal(root.get("category"), category);
+            return getProductsAfterCursor(spec, pageSize, sortBy, sortOrder, cursor);
+        }
+
+        ProductCache.ListingKey listingKey = new ProductCache.ListingKey(null, null, categoryId,
+                pageNumber, pageSize, sortBy, sortOrder, true);
+        return productCache.getListing(listingKey,
+                () -> loadProductsByCategory(pageNumber, pageSize, sortBy, sortOrder, category));
+    }
+
+    private ProductResponse loadProductsByCategory(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, Category category) {
+
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")? Sort.by(sortBy).ascending(): Sort.by(sortBy).descending();
 
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProduct = productRepository.findByCategoryOrderByPriceAsc(category, pageable);
-        List<Product> products = pageProduct.getContent();
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class)).toList();
-        ProductResponse productResponse = new ProductResponse();
-        productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProduct.getNumber());
-        productResponse.setPageSize(pageProduct.getSize());
-        productResponse.setTotalElements(pageProduct.getTotalElements());
-        productResponse.setTotalPages(pageProduct.getTotalPages());
-        productResponse.setLastPage(pageProduct.isLast());
-        return productResponse;
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("price").ascending().and(sortByAndOrder));
+        Specification<Product> spec = (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("category"), category);
+        return getProductsPage(spec, pageable, false);
     }
 
     @Override
     public ProductResponse getProductByKeyWord(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder,String keyword) {
+        ProductCache.ListingKey listingKey = new ProductCache.ListingKey(keyword, null, null,
+                pageNumber, pageSize, sortBy, sortOrder, true);
+        return productCache.getListing(listingKey,
+                () -> searchProducts(pageNumber, pageSize, sortBy, sortOrder, keyword, null));
+    }
+
+    private ProductResponse searchProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, String category) {
+        // Matching ids come from the in-memory index, only the requested page is read from the DB
+        List<Long> matchingIds = productSearchIndex.search(keyword, category, sortBy, sortOrder);
 
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")? Sort.by(sortBy).ascending():Sort.by(sortBy).descending();
+        int fromIndex = (int) Math.min((long) pageNumber * pageSize, matchingIds.size());
+        int toIndex = Math.min(fromIndex + pageSize, matchingIds.size());
+        List<Long> pageIds = matchingIds.subList(fromIndex, toIndex);
 
-        Pageable pageable = PageRequest.of(pageNumber,pageSize,sortByAndOrder);
+        Map<Long, ProductDTO> productsById = productCache.getProducts(pageIds,
+                missingIds -> withImagePaths(productRepository.findProductDTOs(
+                        (root, query, criteriaBuilder) -> root.get("productId").in(missingIds),
+                        Sort.unsorted(), 0, missingIds.size()))
+                        .stream()
+                        .collect(Collectors.toMap(ProductDTO::getProductID, productDTO -> productDTO)));
 
-        Page<Product> pageProduct = productRepository.findByProductNameContainingIgnoreCase(keyword, pageable);
+        List<ProductDTO> productDTOS = pageIds.stream()
+                .map(productsById::get)
+                .filter(productDTO -> productDTO != null)
+                .toList();
 
-        List<Product> products = pageProduct.getContent();
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class)).toList();
+        int totalPages = (matchingIds.size() + pageSize - 1) / pageSize;
         ProductResponse productResponse = new ProductResponse();
         productResponse.setContent(productDTOS);
-        productResponse.setPageNumber(pageProduct.getNumber());
-        productResponse.setPageSize(pageProduct.getSize());
-        productResponse.setTotalElements(pageProduct.getTotalElements());
-        productResponse.setTotalPages(pageProduct.getTotalPages());
-        productResponse.setLastPage(pageProduct.isLast());
+        productResponse.setPageNumber(pageNumber);
+        productResponse.setPageSize(pageSize);
+        productResponse.setTotalElements((long) matchingIds.size());
+        productResponse.setTotalPages(totalPages);
+        productResponse.setLastPage(pageNumber + 1 >= totalPages);
         return productResponse;
     }
 
@@ -181,7 +317,8 @@ public class ProductServiceImpl implements  ProductService{
     public ProductDTO updateProduct(ProductDTO productDTO, Long productId) {
        Product productFromDB = productRepository.findById(productId).orElseThrow(()-> new ResourceNotFoundException("product","productId", productId));
 
-        Product product = modelMapper.map(productDTO, Product.class);
+        Product product = productMapper.toProduct(productDTO);
+        ProductCache.ProductState stateBefore = ProductCache.ProductState.of(productFromDB);
 
         productFromDB.setProductName(product.getProductName());
         productFromDB.setDescription(product.getDescription());
@@ -191,29 +328,22 @@ public class ProductServiceImpl implements  ProductService{
         productFromDB.setSpecialPrice(product.getSpecialPrice());
 
         Product savedProduct = productRepository.save(productFromDB);
+        productSearchIndex.index(savedProduct);
+        productCache.evict(productId, stateBefore, ProductCache.ProductState.of(savedProduct));
 
-        List<Cart> carts = cartRepository.findCartByProductId(productId);
-
-        List<CartDTO> cartDTOS = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-            List<ProductDTO> productDTOS = cart.getCartItems().stream()
-                    .map(p->modelMapper.map(p.getProduct(), ProductDTO.class)).toList();
-            cartDTO.setProducts(productDTOS);
-            return cartDTO;
-        }).toList();
-
-        cartDTOS.forEach(cart->cartService.updateProductsInCart(cart.getCartId(), productId));
+        cartBulkUpdater.repriceProduct(productId, savedProduct.getSpecialPrice());
 
-        return modelMapper.map(savedProduct, ProductDTO.class);
+        return productMapper.toProductDTO(savedProduct);
     }
 
     @Override
     public ProductDTO deleteProduct(Long productId) {
         Product deletedProduct = productRepository.findById(productId).orElseThrow(()->new ResourceNotFoundException("product","productId", productId));
-        List<Cart> carts = cartRepository.findCartByProductId(productId);
-        carts.forEach(cart -> cartService.deleteProductFromCart(cart.getCartId(), productId));
+        cartsPerDeletedProduct.record(cartBulkUpdater.removeProduct(productId));
         productRepository.delete(deletedProduct);
-        return modelMapper.map(deletedProduct, ProductDTO.class);
+        productSearchIndex.remove(productId);
+        productCache.evict(productId, ProductCache.ProductState.of(deletedProduct), null);
+        return productMapper.toProductDTO(deletedProduct);
 
     }
 
@@ -232,9 +362,11 @@ public class ProductServiceImpl implements  ProductService{
 
         //save the updated product
         Product updatedProduct = productRepository.save(productFromDB);
+        productCache.evictDisplayed(productId);
+        imageVariantService.generate(fileName);
 
         //return DTO after mapping product to DTO
-        return modelMapper.map(updatedProduct, ProductDTO.class);
+        return productMapper.toProductDTO(updatedProduct);
 
 
     }
@@ -0,0 +1,56 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reserves stock with the set-based update of {@link ProductRepository#reserveStock} and,
+ * once the reservation is committed, refreshes what the bulk update bypassed: the search
+ * index snapshots and the cached DTOs and listings of the products.
+ */
+@Component
+public class ProductStockService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductCache productCache;
+
+    /**
+     * Takes the quantities (productId -> quantity) out of stock. Returns the ids of the
+     * products that could not be reserved; the caller must roll back when it is not empty.
+     */
+    public List<Long> reserveStock(Map<Long, Integer> quantities) {
+        List<Long> unavailable = productRepository.reserveStock(quantities);
+        if (unavailable.isEmpty()) {
+            Set<Long> productIds = Set.copyOf(quantities.keySet());
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        stockChanged(productIds);
+                    }
+                });
+            } else {
+                stockChanged(productIds);
+            }
+        }
+        return unavailable;
+    }
+
+    private void stockChanged(Set<Long> productIds) {
+        productSearchIndex.index(productRepository.findSearchDocumentsByIds(productIds));
+        productIds.forEach(productCache::evictStock);
+    }
+}
@@ -1,32 +1,149 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.exceptions.APIExceptions;
+import com.ecommerce.project.exceptions.ServiceUnavailableException;
+import com.ecommerce.project.model.PaymentEvent;
 import com.ecommerce.project.payload.StripePaymentDTO;
+import com.ecommerce.project.util.CircuitBreaker;
 import com.stripe.Stripe;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.EventDataObjectDeserializationException;
+import com.stripe.exception.SignatureVerificationException;
 import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import com.stripe.model.EventDataObjectDeserializer;
 import com.stripe.model.PaymentIntent;
+import com.stripe.model.StripeObject;
+import com.stripe.net.HttpClient;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.Webhook;
 import com.stripe.param.PaymentIntentCreateParams;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
-import jakarta.transaction.Transactional;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
+import java.time.Instant;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Stripe calls run on their own bounded pool rather than on the request thread's budget:
+ * the pool and its queue form a bulkhead, every call has connect/read timeouts plus an
+ * overall deadline, and a circuit breaker stops calling Stripe for a while after repeated
+ * outages. The deadline must fit every attempt's timeouts and the backoff between them;
+ * what is left of it is the longest a call may wait for the pool. Calls that waited longer
+ * are dropped without reaching Stripe and, being local overload, do not trip the breaker.
+ * Setting stripe.api.base points the client at a local stub such as stripe-mock; with
+ * stripe.stub.enabled=true {@link StubStripeService} replaces this bean entirely.
+ * Webhook payloads are only accepted with a valid signature for stripe.webhook.secret.
+ */
 @Service
-@Transactional
+@ConditionalOnProperty(name = "stripe.stub.enabled", havingValue = "false", matchIfMissing = true)
 public class StripePaymentImpl implements StripeService{
+
+    private static final Logger logger = LoggerFactory.getLogger(StripePaymentImpl.class);
+
     @Value("${stripe.secret.key}")
     private String stripeAPIKey;
 
+    @Value("${stripe.webhook.secret:}")
+    private String webhookSecret;
+
+    @Value("${stripe.api.base:}")
+    private String stripeApiBase;
+
+    @Value("${stripe.client.max-concurrent:20}")
+    private int maxConcurrent;
+
+    @Value("${stripe.client.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${stripe.client.connect-timeout-ms:1000}")
+    private int connectTimeoutMillis;
+
+    @Value("${stripe.client.read-timeout-ms:2500}")
+    private int readTimeoutMillis;
+
+    @Value("${stripe.client.max-retries:1}")
+    private int maxNetworkRetries;
+
+    @Value("${stripe.client.deadline-ms:8000}")
+    private long deadlineMillis;
+
+    @Value("${stripe.client.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${stripe.client.open-ms:30000}")
+    private long openMillis;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private CircuitBreaker circuitBreaker;
+    private long queueWaitNanos;
+    private Counter rejected;
+
     @PostConstruct
     public void init(){
         Stripe.apiKey = stripeAPIKey;
+        if (!stripeApiBase.isBlank()) {
+            Stripe.overrideApiBase(stripeApiBase);
+            logger.warn("Stripe API calls go to {}", stripeApiBase);
+        }
+        if (webhookSecret.isBlank()) {
+            logger.warn("stripe.webhook.secret is not set, payment webhooks are refused");
+        }
+        long callMillis = worstCaseCallMillis();
+        if (callMillis >= deadlineMillis) {
+            throw new IllegalStateException("stripe.client.deadline-ms (" + deadlineMillis
+                    + ") must exceed the " + callMillis + " ms the timeouts and retries of a call can take");
+        }
+        queueWaitNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis - callMillis);
+
+        executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stripe-client");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        circuitBreaker = new CircuitBreaker(failureThreshold, openMillis);
+
+        rejected = Counter.builder("stripe.api.rejected")
+                .description("Stripe calls rejected by the bulkhead, the circuit breaker or the deadline")
+                .register(meterRegistry);
+        Gauge.builder("stripe.api.in.flight", executor, pool -> pool.getActiveCount() + pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("stripe.api.circuit.open", circuitBreaker,
+                        breaker -> breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
     }
 
     @Override
     public PaymentIntent paymentIntent(StripePaymentDTO stripePaymentDTO) throws StripeException {
-        // Set your secret key
-// Create a PaymentIntent with a specific currency
+        return paymentIntent(stripePaymentDTO, null);
+    }
+
+    @Override
+    public PaymentIntent paymentIntent(StripePaymentDTO stripePaymentDTO, String idempotencyKey) throws StripeException {
+        // Create a PaymentIntent with a specific currency
         PaymentIntentCreateParams params =
                 PaymentIntentCreateParams.builder()
                         .setAmount(stripePaymentDTO.getAmount())
@@ -39,6 +156,167 @@ public class StripePaymentImpl implements StripeService{
                         )
                         .build();
 
-        return PaymentIntent.create(params);
+        // Stripe deduplicates on its side too, which also covers retries reaching another instance
+        RequestOptions requestOptions = RequestOptions.builder()
+                .setIdempotencyKey(idempotencyKey)
+                .setConnectTimeout(connectTimeoutMillis)
+                .setReadTimeout(readTimeoutMillis)
+                .setMaxNetworkRetries(maxNetworkRetries)
+                .build();
+        return call("payment_intent.create", () -> PaymentIntent.create(params, requestOptions));
+    }
+
+    @Override
+    public PaymentEvent parseWebhookEvent(String payload, String signatureHeader) {
+        if (webhookSecret.isBlank()) {
+            throw new ServiceUnavailableException("Payment webhooks are not configured");
+        }
+        Event event;
+        try {
+            event = Webhook.constructEvent(payload, signatureHeader, webhookSecret);
+        } catch (SignatureVerificationException e) {
+            throw new APIExceptions("Invalid webhook signature");
+        } catch (RuntimeException e) {
+            throw new APIExceptions("Invalid webhook payload");
+        }
+        return toPaymentEvent(event);
+    }
+
+    /**
+     * The journal entry for a parsed event, or null for events that do not concern payment intents.
+     */
+    static PaymentEvent toPaymentEvent(Event event) {
+        if (event == null || event.getType() == null || !event.getType().startsWith("payment_intent.")) {
+            return null;
+        }
+        StripeObject object;
+        try {
+            // events sent with another API version than the SDK's are still read
+            EventDataObjectDeserializer deserializer = event.getDataObjectDeserializer();
+            object = deserializer.getObject().isPresent() ? deserializer.getObject().get() : deserializer.deserializeUnsafe();
+        } catch (EventDataObjectDeserializationException | RuntimeException e) {
+            throw new APIExceptions("Invalid webhook payload");
+        }
+        if (!(object instanceof PaymentIntent paymentIntent)) {
+            return null;
+        }
+
+        Instant receivedAt = Instant.now();
+        return new PaymentEvent(
+                event.getId(),
+                event.getType(),
+                paymentIntent.getId(),
+                paymentIntent.getStatus(),
+                paymentIntent.getLastPaymentError() != null ? paymentIntent.getLastPaymentError().getMessage() : null,
+                event.getCreated() != null ? Instant.ofEpochSecond(event.getCreated()) : receivedAt,
+                receivedAt,
+                null,
+                receivedAt,
+                0);
+    }
+
+    private <T> T call(String operation, Callable<T> stripeCall) throws StripeException {
+        if (!circuitBreaker.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Payment provider is unavailable, please retry shortly");
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean started = new AtomicBoolean();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                // Started this late, the call could outlive the deadline
+                if (System.nanoTime() - start > queueWaitNanos) {
+                    throw new QueueWaitExceeded();
+                }
+                started.set(true);
+                return stripeCall.call();
+            });
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.onAbandoned();
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many payment requests, please retry shortly");
+        }
+
+        String outcome = "failure";
+        try {
+            T value = result.get(deadlineMillis, TimeUnit.MILLISECONDS);
+            outcome = "success";
+            circuitBreaker.onSuccess();
+            return value;
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.increment();
+            if (!started.get()) {
+                executor.remove((Runnable) result);
+                outcome = "queue_timeout";
+                circuitBreaker.onAbandoned();
+                throw new ServiceUnavailableException("Too many payment requests, please retry shortly");
+            }
+            outcome = "timeout";
+            circuitBreaker.onFailure();
+            throw new ServiceUnavailableException("Payment provider did not respond in time, please retry");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            circuitBreaker.onAbandoned();
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Payment request was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof QueueWaitExceeded) {
+                outcome = "queue_timeout";
+                circuitBreaker.onAbandoned();
+                rejected.increment();
+                throw new ServiceUnavailableException("Too many payment requests, please retry shortly");
+            }
+            if (cause instanceof StripeException stripeException) {
+                // card and request errors mean Stripe is up; only outages count against the breaker
+                if (isOutage(stripeException)) {
+                    circuitBreaker.onFailure();
+                } else {
+                    outcome = "client_error";
+                    circuitBreaker.onSuccess();
+                }
+                throw stripeException;
+            }
+            circuitBreaker.onFailure();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            Timer.builder("stripe.api.duration")
+                    .description("Stripe API call latency including time queued for the pool")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Longest a call can take on the pool: every attempt may use the full connect and read
+     * timeouts, and the client sleeps between attempts with exponential backoff.
+     */
+    private long worstCaseCallMillis() {
+        long millis = (long) (connectTimeoutMillis + readTimeoutMillis) * (maxNetworkRetries + 1);
+        for (int retry = 1; retry <= maxNetworkRetries; retry++) {
+            long backoff = HttpClient.minNetworkRetriesDelay.toMillis() << Math.min(retry - 1, 20);
+            millis += Math.min(backoff, HttpClient.maxNetworkRetriesDelay.toMillis());
+        }
+        return millis;
+    }
+
+    private static boolean isOutage(StripeException e) {
+        Integer statusCode = e.getStatusCode();
+        return e instanceof ApiConnectionException || statusCode == null || statusCode >= 500 || statusCode == 429;
+    }
+
+    private static class QueueWaitExceeded extends RuntimeException {
+        QueueWaitExceeded() {
+            super(null, null, false, false);
+        }
     }
 }
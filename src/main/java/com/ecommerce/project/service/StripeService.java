@@ -1,6 +1,6 @@
 package com.ecommerce.project.service;
 
-import com.ecommerce.project.payload.StripePaymentDTO;
+import com.ecommerce.project.model.PaymentEvent;
 import com.ecommerce.project.payload.StripePaymentDTO;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
@@ -9,4 +9,12 @@ public interface StripeService {
 
      PaymentIntent paymentIntent(StripePaymentDTO stripePaymentDTO) throws StripeException;
 
+     PaymentIntent paymentIntent(StripePaymentDTO stripePaymentDTO, String idempotencyKey) throws StripeException;
+
+     /**
+      * Verifies and parses a webhook payload into a journal entry, or returns null for
+      * event types that do not concern payment intents.
+      */
+     PaymentEvent parseWebhookEvent(String payload, String signatureHeader);
+
 }
@@ -0,0 +1,72 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIExceptions;
+import com.ecommerce.project.model.PaymentEvent;
+import com.ecommerce.project.payload.StripePaymentDTO;
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.exception.StripeException;
+import com.stripe.net.Webhook;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.UUID;
+
+/**
+ * Stands in for {@link StripePaymentImpl} when stripe.stub.enabled=true, for tests and load
+ * runs without network access. Payment intents are made up locally, with the id derived from
+ * the idempotency key so retries get the same intent; webhook payloads are parsed like
+ * Stripe's but accepted without a signature, so an event generator need not sign them.
+ */
+@Service
+@ConditionalOnProperty(name = "stripe.stub.enabled", havingValue = "true")
+public class StubStripeService implements StripeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubStripeService.class);
+
+    private static final String SIGNING_SECRET = "whsec_stub";
+
+    @PostConstruct
+    public void init() {
+        logger.warn("Stripe is stubbed: no payments are taken and webhook signatures are not checked");
+    }
+
+    @Override
+    public PaymentIntent paymentIntent(StripePaymentDTO stripePaymentDTO) {
+        return paymentIntent(stripePaymentDTO, null);
+    }
+
+    @Override
+    public PaymentIntent paymentIntent(StripePaymentDTO stripePaymentDTO, String idempotencyKey) {
+        UUID id = idempotencyKey != null
+                ? UUID.nameUUIDFromBytes(idempotencyKey.getBytes(StandardCharsets.UTF_8))
+                : UUID.randomUUID();
+        PaymentIntent paymentIntent = new PaymentIntent();
+        paymentIntent.setId("pi_stub_" + id.toString().replace("-", ""));
+        paymentIntent.setObject("payment_intent");
+        paymentIntent.setClientSecret(paymentIntent.getId() + "_secret_stub");
+        paymentIntent.setAmount(stripePaymentDTO.getAmount());
+        paymentIntent.setCurrency(stripePaymentDTO.getCurrency());
+        paymentIntent.setStatus("requires_payment_method");
+        return paymentIntent;
+    }
+
+    @Override
+    public PaymentEvent parseWebhookEvent(String payload, String signatureHeader) {
+        Event event;
+        try {
+            // signed here, so the SDK parses the payload exactly as it does for Stripe's webhooks
+            long timestamp = Webhook.Util.getTimeNow();
+            String signature = Webhook.Util.computeHmacSha256(SIGNING_SECRET, timestamp + "." + payload);
+            event = Webhook.constructEvent(payload, "t=" + timestamp + ",v1=" + signature, SIGNING_SECRET);
+        } catch (GeneralSecurityException | StripeException | RuntimeException e) {
+            throw new APIExceptions("Invalid webhook payload");
+        }
+        return StripePaymentImpl.toPaymentEvent(event);
+    }
+}
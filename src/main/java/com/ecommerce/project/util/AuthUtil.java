@@ -2,42 +2,62 @@ package com.ecommerce.project.util;
 
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+/**
+ * Resolves the logged-in user. Email and id come from the authenticated principal; the
+ * {@link User} entity is loaded at most once per request and kept as a request attribute.
+ */
 @Component
 public class AuthUtil {
 
+    private static final String LOGGED_IN_USER_ATTRIBUTE = AuthUtil.class.getName() + ".loggedInUser";
+
     @Autowired
     UserRepository userRepository;
 
     public String loggedInEmail(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
-
-        return user.getEmail();
+        UserDetailsImpl principal = loggedInPrincipal();
+        return principal != null ? principal.getEmail() : loggedInUser().getEmail();
     }
 
     public Long loggedInUserId(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
-
-        return user.getUserId();
+        UserDetailsImpl principal = loggedInPrincipal();
+        return principal != null ? principal.getId() : loggedInUser().getUserId();
     }
 
     public User loggedInUser(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if(requestAttributes != null){
+            User user = (User) requestAttributes.getAttribute(LOGGED_IN_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if(user != null){
+                return user;
+            }
+        }
 
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         User user = userRepository.findByUserName(authentication.getName())
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
-        return user;
 
+        if(requestAttributes != null){
+            requestAttributes.setAttribute(LOGGED_IN_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
     }
 
-
-}
\ No newline at end of file
+    private UserDetailsImpl loggedInPrincipal(){
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if(authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl principal
+                && principal.getId() != null && principal.getEmail() != null){
+            return principal;
+        }
+        return null;
+    }
+}
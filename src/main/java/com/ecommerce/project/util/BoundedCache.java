@@ -0,0 +1,243 @@
+package com.ecommerce.project.util;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process cache bounded by entry count (least recently used entries are evicted
+ * first) and by time to live. Keeps hit, miss and eviction counters for sizing.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // Invalidations are stamped from this clock and remembered while a load that started before
+    // them is in flight, so the load can tell whether they touch its keys. All guarded by the entries lock.
+    private long clock;
+    private long allInvalidatedAt;
+    private final Map<K, Long> keyInvalidations = new HashMap<>();
+    private final List<Invalidation<K, V>> predicateInvalidations = new ArrayList<>();
+    // load start stamp -> loads started at it
+    private final TreeMap<Long, Integer> loadsInFlight = new TreeMap<>();
+
+    public BoundedCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the cached value, loading and caching it on a miss. The loader runs outside
+     * the cache lock, so concurrent misses for the same key may load it more than once.
+     * A value loaded while an invalidation covering it happened is returned but not cached;
+     * invalidations of other keys do not affect it.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long loadStartedAt = startLoad();
+        try {
+            V value = getIfPresent(key);
+            if (value == null) {
+                value = loader.apply(key);
+                if (value != null) {
+                    synchronized (entries) {
+                        if (!invalidatedSince(loadStartedAt, key, value)) {
+                            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+                        }
+                    }
+                }
+            }
+            return value;
+        } finally {
+            finishLoad(loadStartedAt);
+        }
+    }
+
+    /**
+     * Bulk variant of {@link #get(Object, Function)}: the loader receives all missing keys at once.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<? super Set<K>, ? extends Map<K, V>> loader) {
+        long loadStartedAt = startLoad();
+        try {
+            Map<K, V> values = new HashMap<>();
+            Set<K> missing = new LinkedHashSet<>();
+            for (K key : keys) {
+                V value = getIfPresent(key);
+                if (value != null) {
+                    values.put(key, value);
+                } else {
+                    missing.add(key);
+                }
+            }
+            if (!missing.isEmpty()) {
+                Map<K, V> loaded = loader.apply(missing);
+                values.putAll(loaded);
+                long expiresAt = System.currentTimeMillis() + ttlMillis;
+                synchronized (entries) {
+                    loaded.forEach((key, value) -> {
+                        if (!invalidatedSince(loadStartedAt, key, value)) {
+                            entries.put(key, new Entry<>(value, expiresAt));
+                        }
+                    });
+                }
+            }
+            return values;
+        } finally {
+            finishLoad(loadStartedAt);
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    /**
+     * Caches the value unless a live entry exists for the key; returns that entry's value,
+     * or null when the given value was stored.
+     */
+    public V putIfAbsent(K key, V value) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.value;
+            }
+            misses.increment();
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+            return null;
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            if (!loadsInFlight.isEmpty()) {
+                keyInvalidations.put(key, ++clock);
+            }
+            if (entries.remove(key) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public void invalidateIf(Predicate<? super K> keyPredicate) {
+        invalidateEntriesIf((key, value) -> keyPredicate.test(key));
+    }
+
+    public void invalidateEntriesIf(BiPredicate<? super K, ? super V> predicate) {
+        synchronized (entries) {
+            if (!loadsInFlight.isEmpty()) {
+                predicateInvalidations.add(new Invalidation<>(++clock, predicate));
+            }
+            Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, Entry<V>> entry = iterator.next();
+                if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                    iterator.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            allInvalidatedAt = ++clock;
+            evictions.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private long startLoad() {
+        synchronized (entries) {
+            loadsInFlight.merge(clock, 1, Integer::sum);
+            return clock;
+        }
+    }
+
+    private void finishLoad(long loadStartedAt) {
+        synchronized (entries) {
+            loadsInFlight.computeIfPresent(loadStartedAt, (stamp, loads) -> loads == 1 ? null : loads - 1);
+            // forget invalidations no load in flight started before
+            long oldestLoad = loadsInFlight.isEmpty() ? clock : loadsInFlight.firstKey();
+            keyInvalidations.values().removeIf(stamp -> stamp <= oldestLoad);
+            predicateInvalidations.removeIf(invalidation -> invalidation.stamp() <= oldestLoad);
+        }
+    }
+
+    // caller holds the entries lock
+    private boolean invalidatedSince(long loadStartedAt, K key, V value) {
+        if (allInvalidatedAt > loadStartedAt) {
+            return true;
+        }
+        Long keyInvalidatedAt = keyInvalidations.get(key);
+        if (keyInvalidatedAt != null && keyInvalidatedAt > loadStartedAt) {
+            return true;
+        }
+        for (Invalidation<K, V> invalidation : predicateInvalidations) {
+            if (invalidation.stamp() > loadStartedAt && invalidation.predicate().test(key, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private record Invalidation<K, V>(long stamp, BiPredicate<? super K, ? super V> predicate) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.exceptions.APIExceptions;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset (seek) pagination. It carries the sort field, the direction
+ * and the sort key and id of the last row of the previous page, so the next page can be
+ * read with {@code WHERE key >= lastKey AND (key, id) > (lastKey, lastId)} instead of an
+ * OFFSET scan. The leading key bound is only added where it is a plain range, i.e. not for
+ * ascending seeks on a nullable key, whose trailing nulls it would have to admit.
+ */
+public class KeysetCursor {
+
+    private static final String SEPARATOR = "\n";
+    private static final String NULL_VALUE = "\u0000";
+
+    private final String sortBy;
+    private final String sortOrder;
+    private final Long lastId;
+    private final String lastValue;
+
+    private KeysetCursor(String sortBy, String sortOrder, Long lastId, String lastValue) {
+        this.sortBy = sortBy;
+        this.sortOrder = sortOrder;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public static boolean isFirstPage(String cursor) {
+        return cursor.isBlank();
+    }
+
+    /**
+     * Builds the cursor pointing after the given row.
+     */
+    public static String encode(Object lastRow, String idAttribute, String sortBy, String sortOrder) {
+        BeanWrapperImpl row = new BeanWrapperImpl(lastRow);
+        return encode(sortBy, sortOrder, row.getPropertyValue(idAttribute), row.getPropertyValue(sortBy));
+    }
+
+    /**
+     * Builds the cursor pointing after the row with the given id and sort key.
+     */
+    public static String encode(String sortBy, String sortOrder, Object lastId, Object lastValue) {
+        String raw = String.join(SEPARATOR,
+                sortBy,
+                sortOrder.toLowerCase(),
+                String.valueOf(lastId),
+                lastValue == null ? NULL_VALUE : lastValue.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor, String sortBy, String sortOrder) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new APIExceptions("Invalid cursor");
+        }
+        if (parts.length != 4) {
+            throw new APIExceptions("Invalid cursor");
+        }
+        if (!parts[0].equals(sortBy) || !parts[1].equalsIgnoreCase(sortOrder)) {
+            throw new APIExceptions("Cursor was issued for a different sort order");
+        }
+        try {
+            return new KeysetCursor(parts[0], parts[1], Long.valueOf(parts[2]),
+                    NULL_VALUE.equals(parts[3]) ? null : parts[3]);
+        } catch (NumberFormatException e) {
+            throw new APIExceptions("Invalid cursor");
+        }
+    }
+
+    /**
+     * Sort by the requested field with the id as tie-breaker, which is the order the cursor seeks on.
+     */
+    public static Sort sort(String idAttribute, String sortBy, String sortOrder) {
+        Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, sortBy);
+        return sortBy.equals(idAttribute) ? sort : sort.and(Sort.by(direction, idAttribute));
+    }
+
+    /**
+     * Restricts a query to the rows after this cursor. Null sort keys are expected last in
+     * ascending and first in descending order, which is the PostgreSQL default.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> Specification<T> after(String idAttribute) {
+        boolean ascending = sortOrder.equalsIgnoreCase("asc");
+        return (root, query, criteriaBuilder) -> {
+            Path<Long> id = root.get(idAttribute);
+            Predicate afterId = ascending ? criteriaBuilder.greaterThan(id, lastId) : criteriaBuilder.lessThan(id, lastId);
+            if (sortBy.equals(idAttribute)) {
+                return afterId;
+            }
+
+            Path<Comparable> key = root.get(sortBy);
+            if (lastValue == null) {
+                Predicate sameKey = criteriaBuilder.and(criteriaBuilder.isNull(key), afterId);
+                return ascending ? sameKey : criteriaBuilder.or(criteriaBuilder.isNotNull(key), sameKey);
+            }
+
+            Comparable value = convert(lastValue, key.getJavaType());
+            Predicate beyondKey = ascending ? criteriaBuilder.greaterThan(key, value) : criteriaBuilder.lessThan(key, value);
+            Predicate sameKey = criteriaBuilder.and(criteriaBuilder.equal(key, value), afterId);
+            if (!ascending) {
+                // The OR alone cannot bound an index scan; the redundant key bound gives the
+                // planner a range start on the sort key. Descending nulls came first, so none are left.
+                return criteriaBuilder.and(criteriaBuilder.lessThanOrEqualTo(key, value),
+                        criteriaBuilder.or(beyondKey, sameKey));
+            }
+            if (!isNullable(root, sortBy)) {
+                return criteriaBuilder.and(criteriaBuilder.greaterThanOrEqualTo(key, value),
+                        criteriaBuilder.or(beyondKey, sameKey));
+            }
+            // Ascending nulls come last and must stay in; a bound that admits them is no index
+            // range, so a nullable key is sought with the OR alone
+            return criteriaBuilder.or(beyondKey, sameKey, criteriaBuilder.isNull(key));
+        };
+    }
+
+    private static boolean isNullable(Root<?> root, String attributeName) {
+        Attribute<?, ?> attribute = root.getModel().getAttribute(attributeName);
+        return !(attribute instanceof SingularAttribute<?, ?> singularAttribute) || singularAttribute.isOptional();
+    }
+
+    private static Comparable<?> convert(String value, Class<?> type) {
+        try {
+            if (type == Long.class) {
+                return Long.valueOf(value);
+            }
+            if (type == Integer.class) {
+                return Integer.valueOf(value);
+            }
+            if (type == Double.class) {
+                return Double.valueOf(value);
+            }
+            if (type == String.class) {
+                return value;
+            }
+            if (type == LocalDate.class) {
+                return LocalDate.parse(value);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new APIExceptions("Invalid cursor");
+        }
+        throw new APIExceptions("Cursor pagination is not supported for this sort field");
+    }
+}
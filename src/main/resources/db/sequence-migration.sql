@@ -0,0 +1,9 @@
+-- Entity ids come from pooled sequences (allocationSize = 50) instead of identity columns.
+-- Moves every sequence past the ids already in use; safe to run on every startup.
+SELECT setval('products_seq', GREATEST((SELECT COALESCE(MAX(product_id), 0) FROM products) + 50, (SELECT last_value FROM products_seq)));
+SELECT setval('orders_seq', GREATEST((SELECT COALESCE(MAX(order_id), 0) FROM orders) + 50, (SELECT last_value FROM orders_seq)));
+SELECT setval('order_items_seq', GREATEST((SELECT COALESCE(MAX(order_item_id), 0) FROM order_items) + 50, (SELECT last_value FROM order_items_seq)));
+SELECT setval('cart_items_seq', GREATEST((SELECT COALESCE(MAX(cart_item_id), 0) FROM cart_items) + 50, (SELECT last_value FROM cart_items_seq)));
+SELECT setval('payments_seq', GREATEST((SELECT COALESCE(MAX(payment_id), 0) FROM payments) + 50, (SELECT last_value FROM payments_seq)));
+SELECT setval('address_seq', GREATEST((SELECT COALESCE(MAX(address_id), 0) FROM address) + 50, (SELECT last_value FROM address_seq)));
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(user_id), 0) FROM users) + 50, (SELECT last_value FROM users_seq)));
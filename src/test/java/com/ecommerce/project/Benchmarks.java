@@ -0,0 +1,31 @@
+package com.ecommerce.project;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+
+/**
+ * Runs the JMH benchmarks of a class from a JUnit test tagged {@code benchmark}, so they
+ * are left out of the normal build and run with {@code mvn test -Pbenchmark}.
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {
+	}
+
+	public static Collection<RunResult> run(Class<?> benchmarkClass) throws RunnerException {
+		return new Runner(new OptionsBuilder()
+				.include(benchmarkClass.getName())
+				.forks(1)
+				.warmupIterations(3)
+				.warmupTime(TimeValue.seconds(2))
+				.measurementIterations(5)
+				.measurementTime(TimeValue.seconds(2))
+				.build())
+				.run();
+	}
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.repositories.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Base for tests that need the real schema on PostgreSQL. One container serves every test
+ * class (it lives as long as the JVM, like the cached application context), so tests keep
+ * their data apart with unique names instead of cleaning up. Skipped when Docker is missing.
+ */
+@SpringBootTest(properties = {
+		"stripe.secret.key=sk_test_integration",
+		"stripe.webhook.secret=whsec_integration",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		// background jobs would add their statements to the counts tests assert on
+		"listing.count.refresh-ms=3600000",
+		"order.pipeline.recovery-ms=3600000",
+		"payment.reconcile.interval-ms=3600000",
+		"jwt.revocation.poll-ms=3600000",
+		"jwt.revocation.purge-ms=3600000",
+		"jwt.roles.poll-ms=3600000",
+		"jwt.roles.purge-ms=3600000"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+	private static final PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+	@Autowired
+	protected EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	protected CategoryRepository categoryRepository;
+
+	@Autowired
+	protected ProductRepository productRepository;
+
+	@Autowired
+	protected UserRepository userRepository;
+
+	@Autowired
+	protected AddressRepository addressRepository;
+
+	@Autowired
+	protected CartRepository cartRepository;
+
+	@Autowired
+	protected CartItemRepository cartItemRepository;
+
+	@DynamicPropertySource
+	static void datasourceProperties(DynamicPropertyRegistry registry) {
+		postgres.start();
+		registry.add("spring.datasource.url", postgres::getJdbcUrl);
+		registry.add("spring.datasource.username", postgres::getUsername);
+		registry.add("spring.datasource.password", postgres::getPassword);
+	}
+
+	/**
+	 * Hibernate statistics of the test context; clear them before the code under test runs.
+	 */
+	protected Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	protected static String uniqueName(String prefix) {
+		return prefix + "-" + UUID.randomUUID();
+	}
+
+	protected Category createCategory() {
+		Category category = new Category();
+		category.setCategoryName(uniqueName("category"));
+		return categoryRepository.save(category);
+	}
+
+	protected Product createProduct(Category category, int quantity, double price) {
+		Product product = new Product();
+		product.setProductName(uniqueName("product"));
+		product.setDescription("Integration test product");
+		product.setImage("default.png");
+		product.setQuantity(quantity);
+		product.setPrice(price);
+		product.setDiscount(0.0);
+		product.setSpecialPrice(price);
+		product.setCategory(category);
+		return productRepository.save(product);
+	}
+
+	/**
+	 * A user with an address and a cart holding the given products and quantities.
+	 */
+	protected Customer createCustomer(Map<Product, Integer> cartLines) {
+		// username and email columns are limited to 20 and 25 characters
+		String name = "u" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+		User user = userRepository.save(new User(name, name + "@test.io", "{noop}password"));
+
+		Address address = new Address();
+		address.setStreet("Main Street");
+		address.setBuildingName("Building");
+		address.setCity("Springfield");
+		address.setState("State");
+		address.setCountry("Country");
+		address.setPincode("12345");
+		address.setUser(user);
+		address = addressRepository.save(address);
+
+		Cart cart = new Cart();
+		cart.setUser(user);
+		cart.setTotalPrice(cartLines.entrySet().stream()
+				.mapToDouble(line -> line.getKey().getSpecialPrice() * line.getValue())
+				.sum());
+		cart = cartRepository.save(cart);
+		for (Map.Entry<Product, Integer> line : cartLines.entrySet()) {
+			CartItem cartItem = new CartItem();
+			cartItem.setCart(cart);
+			cartItem.setProduct(line.getKey());
+			cartItem.setQuantity(line.getValue());
+			cartItem.setDiscount(line.getKey().getDiscount());
+			cartItem.setProductPrice(line.getKey().getSpecialPrice());
+			cartItemRepository.save(cartItem);
+		}
+		return new Customer(user.getUserId(), user.getUserName(), user.getEmail(), address.getAddressId(), cart.getCartId());
+	}
+
+	protected record Customer(Long userId, String userName, String email, Long addressId, Long cartId) {
+	}
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.Category;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * db/sequence-migration.sql runs on every startup, so running it again must not move the
+ * sequences, while ids inserted past a sequence must still be skipped.
+ */
+class SequenceMigrationTest extends PostgresIntegrationTest {
+
+	private static final List<String> SEQUENCES = List.of("products_seq", "orders_seq", "order_items_seq",
+			"cart_items_seq", "payments_seq", "address_seq", "users_seq");
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void rerunningLeavesSequencesUnchanged() {
+		runMigration();
+		Map<String, Long> before = lastValues();
+
+		runMigration();
+		runMigration();
+
+		assertThat(lastValues()).isEqualTo(before);
+	}
+
+	@Test
+	void movesSequencePastExistingIdsOnce() {
+		Category category = createCategory();
+		long explicitId = lastValue("products_seq") + 1000;
+		jdbcTemplate.update("INSERT INTO products (product_id, product_name, description, quantity, price, discount, " +
+						"special_price, category_id) VALUES (?, ?, 'Inserted with an explicit id', 1, 1, 0, 1, ?)",
+				explicitId, uniqueName("product"), category.getCategoryId());
+
+		runMigration();
+		long moved = lastValue("products_seq");
+		runMigration();
+
+		assertThat(moved).isGreaterThanOrEqualTo(explicitId + 50);
+		assertThat(lastValue("products_seq")).isEqualTo(moved);
+	}
+
+	private void runMigration() {
+		new ResourceDatabasePopulator(new ClassPathResource("db/sequence-migration.sql")).execute(dataSource);
+	}
+
+	private Map<String, Long> lastValues() {
+		Map<String, Long> values = new LinkedHashMap<>();
+		SEQUENCES.forEach(sequence -> values.put(sequence, lastValue(sequence)));
+		return values;
+	}
+
+	private long lastValue(String sequence) {
+		return jdbcTemplate.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+	}
+}
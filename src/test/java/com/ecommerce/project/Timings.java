@@ -0,0 +1,36 @@
+package com.ecommerce.project;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Wall-clock timing for the benchmark tests that need a database, where JMH's forked
+ * JVMs cannot share the test's application context.
+ */
+public final class Timings {
+
+	private Timings() {
+	}
+
+	/**
+	 * Median duration of {@code runs} runs of the task, after one untimed warm-up run.
+	 */
+	public static Duration median(int runs, Runnable task) {
+		task.run();
+		long[] nanos = new long[runs];
+		for (int i = 0; i < runs; i++) {
+			long start = System.nanoTime();
+			task.run();
+			nanos[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(nanos);
+		return Duration.ofNanos(nanos[runs / 2]);
+	}
+
+	/**
+	 * Operations per second for {@code operations} operations that took the given time.
+	 */
+	public static double perSecond(long operations, Duration elapsed) {
+		return operations * 1_000_000_000.0 / Math.max(1, elapsed.toNanos());
+	}
+}
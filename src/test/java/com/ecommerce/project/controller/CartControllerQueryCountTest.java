@@ -0,0 +1,74 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.security.services.UserDetailsImpl;
+import com.ecommerce.project.service.CartService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GET /carts/users/cart reads the cart once: it costs exactly what loading and mapping
+ * the cart by email costs, nothing for resolving the user.
+ */
+class CartControllerQueryCountTest extends PostgresIntegrationTest {
+
+	@Autowired
+	private CartController cartController;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Customer customer;
+
+	@BeforeEach
+	void logIn() {
+		Category category = createCategory();
+		customer = createCustomer(Map.of(
+				createProduct(category, 10, 5.0), 1,
+				createProduct(category, 10, 7.5), 2));
+		UserDetailsImpl principal = new UserDetailsImpl(customer.userId(), customer.userName(), customer.email(),
+				"{noop}password", List.of());
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+	}
+
+	@AfterEach
+	void logOut() {
+		SecurityContextHolder.clearContext();
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void cartIsReadOnce() {
+		// a request keeps its persistence context open while the cart is mapped (open-in-view)
+		statistics().clear();
+		CartDTO direct = transactionTemplate.execute(status -> cartService.getCartByEmail(customer.email()));
+		long cartRead = statistics().getPrepareStatementCount();
+
+		statistics().clear();
+		CartDTO viaController = transactionTemplate.execute(status -> cartController.getCartByUser().getBody());
+
+		assertThat(viaController.getCartId()).isEqualTo(customer.cartId());
+		assertThat(viaController.getProducts()).hasSize(direct.getProducts().size()).hasSize(2);
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(cartRead);
+	}
+}
@@ -0,0 +1,147 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.Timings;
+import com.ecommerce.project.service.OrderFulfillmentPipeline;
+import com.ecommerce.project.service.PaymentReconciler;
+import com.stripe.Stripe;
+import com.stripe.net.Webhook;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Webhook ingestion and reconciliation against the 10k events per minute target. A local
+ * generator signs Stripe-shaped payment_intent events (created, then succeeded) for orders
+ * generated with generate_series and posts them, shuffled, to the webhook endpoint from
+ * many threads; the reconciler then works off the journal. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PaymentWebhookBenchmarkTest extends PostgresIntegrationTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(PaymentWebhookBenchmarkTest.class);
+
+	private static final int TARGET_PER_MINUTE = 10_000;
+
+	private static final int PAYMENTS = 10_000;
+
+	private static final int THREADS = 32;
+
+	@Value("${stripe.webhook.secret}")
+	private String webhookSecret;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PaymentWebhookController paymentWebhookController;
+
+	@Autowired
+	private PaymentReconciler paymentReconciler;
+
+	@Test
+	void webhookIngestionAndReconciliation() throws Exception {
+		String prefix = "pi_" + UUID.randomUUID().toString().substring(0, 8) + "_";
+		generateOrders(prefix);
+		List<SignedEvent> events = generateEvents(prefix);
+
+		long start = System.nanoTime();
+		AtomicInteger next = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> senders = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				senders.add(executor.submit(() -> {
+					int index;
+					while ((index = next.getAndIncrement()) < events.size()) {
+						SignedEvent event = events.get(index);
+						assertThat(paymentWebhookController.receiveStripeEvent(event.payload(), event.signature())
+								.getStatusCode().is2xxSuccessful()).isTrue();
+					}
+					return null;
+				}));
+			}
+			for (Future<?> sender : senders) {
+				sender.get(10, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		Duration ingestion = Duration.ofNanos(System.nanoTime() - start);
+
+		start = System.nanoTime();
+		paymentReconciler.reconcile();
+		Duration reconciliation = Duration.ofNanos(System.nanoTime() - start);
+
+		logger.info("{} webhook events on {} threads: ingested at {}/min, reconciled at {}/min (target {}/min)",
+				events.size(), THREADS, perMinute(events.size(), ingestion),
+				perMinute(events.size(), reconciliation), TARGET_PER_MINUTE);
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM orders o JOIN payments p ON p.payment_id = o.payment_id "
+				+ "WHERE p.pg_payment_id LIKE ? || '%' AND o.order_status = ?", Long.class,
+				prefix, PaymentReconciler.PAYMENT_CONFIRMED)).isEqualTo(PAYMENTS);
+	}
+
+	private static long perMinute(long events, Duration elapsed) {
+		return Math.round(Timings.perSecond(events, elapsed) * 60);
+	}
+
+	// accepted orders, each with a payment the events refer to by its payment intent id
+	private void generateOrders(String prefix) {
+		jdbcTemplate.update("""
+				WITH new_payments AS (
+				    INSERT INTO payments (payment_id, payment_method, pg_payment_id, pg_status, pg_response_message, pg_name)
+				    SELECT nextval('payments_seq'), 'card', ? || i, 'processing', 'Payment processing', 'Stripe'
+				    FROM generate_series(1, ?) AS i
+				    RETURNING payment_id
+				)
+				INSERT INTO orders (order_id, email, order_date, payment_id, total_amount, order_status)
+				SELECT nextval('orders_seq'), 'buyer@bench.io', current_date, payment_id, 30.0, ?
+				FROM new_payments
+				""", prefix, PAYMENTS, OrderFulfillmentPipeline.ACCEPTED);
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	/**
+	 * The local event generator: a created and a succeeded event per payment, signed the
+	 * way Stripe signs webhooks and shuffled, since the provider does not deliver in order.
+	 */
+	private List<SignedEvent> generateEvents(String prefix) throws Exception {
+		long created = Webhook.Util.getTimeNow();
+		List<SignedEvent> events = new ArrayList<>(PAYMENTS * 2);
+		for (int i = 1; i <= PAYMENTS; i++) {
+			events.add(signedEvent(prefix + i, "payment_intent.created", "requires_payment_method", created));
+			events.add(signedEvent(prefix + i, "payment_intent.succeeded", "succeeded", created + 1));
+		}
+		Collections.shuffle(events, new Random(42));
+		return events;
+	}
+
+	private SignedEvent signedEvent(String paymentIntentId, String type, String status, long created) throws Exception {
+		String payload = """
+				{"id": "evt_%s", "object": "event", "api_version": "%s", "created": %d, "type": "%s",
+				 "data": {"object": {"id": "%s", "object": "payment_intent", "status": "%s"}}}
+				""".formatted(UUID.randomUUID().toString().replace("-", ""), Stripe.API_VERSION, created, type,
+				paymentIntentId, status);
+		long timestamp = Webhook.Util.getTimeNow();
+		String signature = Webhook.Util.computeHmacSha256(webhookSecret, timestamp + "." + payload);
+		return new SignedEvent(payload, "t=" + timestamp + ",v1=" + signature);
+	}
+
+	private record SignedEvent(String payload, String signature) {
+	}
+}
@@ -0,0 +1,117 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.Timings;
+import com.ecommerce.project.model.AppRole;
+import com.ecommerce.project.model.Role;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repositories.RoleRepository;
+import com.ecommerce.project.security.reuqest.SignupRequest;
+import com.ecommerce.project.security.services.SignupDuplicateFilter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Signup throughput with the Bloom filter, the single duplicate query and the cached roles,
+ * against the two exists queries and the role lookup signup ran before, on a table of 100k
+ * users generated with generate_series. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SignupThroughputBenchmarkTest extends PostgresIntegrationTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(SignupThroughputBenchmarkTest.class);
+
+	private static final int EXISTING_USERS = 100_000;
+
+	private static final int SIGNUPS = 2_000;
+
+	private static final int THREADS = 8;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private AuthController authController;
+
+	@Autowired
+	private SignupDuplicateFilter signupDuplicateFilter;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Test
+	void signupThroughput() throws Exception {
+		generateUsers();
+		signupDuplicateFilter.load();
+
+		double current = signupsPerSecond((name, email) -> {
+			SignupRequest request = new SignupRequest();
+			request.setUsername(name);
+			request.setEmail(email);
+			request.setPassword("password");
+			assertThat(authController.registerUser(request).getStatusCode().is2xxSuccessful()).isTrue();
+		});
+		double previous = signupsPerSecond(this::signUpWithExistsQueries);
+
+		logger.info("{} signups on {} threads with {} existing users: {} per second now, {} per second before",
+				SIGNUPS, THREADS, EXISTING_USERS, Math.round(current), Math.round(previous));
+	}
+
+	// the checks signup made before: two exists queries and a role query per signup
+	private void signUpWithExistsQueries(String name, String email) {
+		assertThat(userRepository.existsByUserName(name) || userRepository.existsByEmail(email)).isFalse();
+		Role role = roleRepository.findByRoleName(AppRole.ROLE_USER).orElseThrow();
+		User user = new User(name, email, passwordEncoder.encode("password"));
+		user.setRoles(new HashSet<>(Set.of(role)));
+		userRepository.save(user);
+	}
+
+	private double signupsPerSecond(BiConsumer<String, String> signup) throws Exception {
+		// username and email columns are limited to 20 and 25 characters
+		String prefix = "s" + UUID.randomUUID().toString().substring(0, 6);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			long start = System.nanoTime();
+			List<Future<?>> signups = new ArrayList<>();
+			for (int i = 0; i < SIGNUPS; i++) {
+				String name = prefix + i;
+				signups.add(executor.submit(() -> signup.accept(name, name + "@bench.io")));
+			}
+			for (Future<?> future : signups) {
+				future.get(5, TimeUnit.MINUTES);
+			}
+			return Timings.perSecond(SIGNUPS, Duration.ofNanos(System.nanoTime() - start));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void generateUsers() {
+		String prefix = "g" + UUID.randomUUID().toString().substring(0, 6);
+		jdbcTemplate.update("""
+				INSERT INTO users (user_id, username, email, password)
+				SELECT nextval('users_seq'), ? || i, ? || i || '@bench.io', '{noop}password'
+				FROM generate_series(1, ?) AS i
+				""", prefix, prefix, EXISTING_USERS);
+		jdbcTemplate.execute("ANALYZE users");
+	}
+}
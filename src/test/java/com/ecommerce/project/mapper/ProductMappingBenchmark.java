@@ -0,0 +1,69 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.Benchmarks;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mapping a listing page of products to DTOs with the generated MapStruct mapper against
+ * the reflective ModelMapper it replaced. Pure CPU, no database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductMappingBenchmark {
+
+	private static final int PAGE_SIZE = 50;
+
+	private final ProductMapper productMapper = new ProductMapperImpl();
+
+	private final ModelMapper modelMapper = new ModelMapper();
+
+	private List<Product> page;
+
+	@Setup
+	public void createPage() {
+		Category category = new Category();
+		category.setCategoryId(1L);
+		category.setCategoryName("Electronics");
+		page = new ArrayList<>();
+		for (long id = 1; id <= PAGE_SIZE; id++) {
+			page.add(new Product(id, "Product " + id, id + ".png", "Description of product " + id,
+					(int) id, 10.0 * id, 5.0, 9.5 * id, category, null));
+		}
+	}
+
+	@Benchmark
+	public List<ProductDTO> mapStruct() {
+		return page.stream().map(productMapper::toProductDTO).toList();
+	}
+
+	@Benchmark
+	public List<ProductDTO> modelMapper() {
+		return page.stream().map(product -> modelMapper.map(product, ProductDTO.class)).toList();
+	}
+
+	@Test
+	void mappersProduceTheSameDtos() {
+		createPage();
+
+		assertThat(mapStruct()).usingRecursiveFieldByFieldElementComparator().isEqualTo(modelMapper());
+	}
+
+	@Test
+	@Tag("benchmark")
+	void runBenchmark() throws Exception {
+		assertThat(Benchmarks.run(getClass())).isNotEmpty();
+	}
+}
@@ -0,0 +1,155 @@
+package com.ecommerce.project.security.config;
+
+import com.ecommerce.project.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Image requests through the current handlers against the plain {@code /images/**} handler
+ * they replaced, for a full download and for a browser revalidating its cached copy. Runs
+ * on MockMvc, so it measures the handler work (resolution, validators, copying the body)
+ * but not the socket; no database is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ImageServingBenchmark {
+
+	private static final String IMAGE = "c".repeat(64) + ".jpg";
+
+	// a typical product photo
+	private static final int IMAGE_BYTES = 200 * 1024;
+
+	private Path folder;
+
+	private AnnotationConfigWebApplicationContext currentContext;
+
+	private AnnotationConfigWebApplicationContext previousContext;
+
+	private MockMvc current;
+
+	private MockMvc previous;
+
+	private String etag;
+
+	private String lastModified;
+
+	@Setup
+	public void start() throws Exception {
+		folder = Files.createTempDirectory("images");
+		byte[] content = new byte[IMAGE_BYTES];
+		new Random(1).nextBytes(content);
+		Files.write(folder.resolve(IMAGE), content);
+
+		currentContext = context(CurrentConfig.class);
+		previousContext = context(PreviousConfig.class);
+		current = MockMvcBuilders.webAppContextSetup(currentContext).build();
+		previous = MockMvcBuilders.webAppContextSetup(previousContext).build();
+
+		etag = current.perform(get("/images/" + IMAGE)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		lastModified = previous.perform(get("/images/" + IMAGE)).andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+	}
+
+	@TearDown
+	public void stop() throws IOException {
+		currentContext.close();
+		previousContext.close();
+		FileSystemUtils.deleteRecursively(folder);
+	}
+
+	@Benchmark
+	public MockHttpServletResponse currentDownload() throws Exception {
+		return current.perform(get("/images/" + IMAGE)).andReturn().getResponse();
+	}
+
+	@Benchmark
+	public MockHttpServletResponse previousDownload() throws Exception {
+		return previous.perform(get("/images/" + IMAGE)).andReturn().getResponse();
+	}
+
+	@Benchmark
+	public MockHttpServletResponse currentRevalidation() throws Exception {
+		return current.perform(get("/images/" + IMAGE).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andReturn().getResponse();
+	}
+
+	@Benchmark
+	public MockHttpServletResponse previousRevalidation() throws Exception {
+		return previous.perform(get("/images/" + IMAGE).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+				.andReturn().getResponse();
+	}
+
+	@Test
+	void bothHandlersServeAndRevalidateTheImage() throws Exception {
+		start();
+		try {
+			assertThat(currentDownload().getContentLength()).isEqualTo(IMAGE_BYTES);
+			assertThat(previousDownload().getContentLength()).isEqualTo(IMAGE_BYTES);
+			assertThat(currentRevalidation().getStatus()).isEqualTo(304);
+			assertThat(previousRevalidation().getStatus()).isEqualTo(304);
+		} finally {
+			stop();
+		}
+	}
+
+	@Test
+	@Tag("benchmark")
+	void runBenchmark() throws Exception {
+		assertThat(Benchmarks.run(getClass())).isNotEmpty();
+	}
+
+	private AnnotationConfigWebApplicationContext context(Class<?> config) {
+		AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+		context.setServletContext(new MockServletContext());
+		context.getEnvironment().getPropertySources()
+				.addFirst(new MapPropertySource("benchmark", Map.of("product.image", folder.toString())));
+		context.register(config);
+		context.refresh();
+		return context;
+	}
+
+	@Configuration
+	@EnableWebMvc
+	@Import(WebMvcConfig.class)
+	static class CurrentConfig {
+	}
+
+	// the handler before content-addressed caching: no Cache-Control, no ETag, no resource chain
+	@Configuration
+	@EnableWebMvc
+	static class PreviousConfig implements WebMvcConfigurer {
+
+		@Value("${product.image}")
+		private String imageFolder;
+
+		@Override
+		public void addResourceHandlers(ResourceHandlerRegistry registry) {
+			registry.addResourceHandler("/images/**").addResourceLocations("file:" + imageFolder + "/");
+		}
+	}
+}
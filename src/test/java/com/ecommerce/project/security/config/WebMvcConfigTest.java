@@ -0,0 +1,133 @@
+package com.ecommerce.project.security.config;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Image serving through the resource handlers alone, against a temporary image folder.
+ */
+@SpringJUnitWebConfig(WebMvcConfigTest.Config.class)
+class WebMvcConfigTest {
+
+	private static final String HASH = "a".repeat(64);
+	private static final String HASHED_IMAGE = HASH + ".png";
+	private static final String VARIANT = HASH + "-thumbnail.jpg";
+	private static final String LEGACY_IMAGE = "default.png";
+	private static final byte[] CONTENT = "0123456789abcdefghij".getBytes();
+
+	private static Path folder;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void imageFolder(DynamicPropertyRegistry registry) throws IOException {
+		folder = Files.createTempDirectory("images");
+		Files.createDirectories(folder.resolve("variants"));
+		Files.write(folder.resolve(HASHED_IMAGE), CONTENT);
+		Files.write(folder.resolve(HASHED_IMAGE + ".gz"), new byte[]{1, 2, 3});
+		Files.write(folder.resolve("variants").resolve(VARIANT), CONTENT);
+		Files.write(folder.resolve(LEGACY_IMAGE), CONTENT);
+		registry.add("product.image", () -> folder.toString());
+	}
+
+	@AfterAll
+	static void deleteFolder() throws IOException {
+		FileSystemUtils.deleteRecursively(folder);
+	}
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+	}
+
+	@Test
+	void contentAddressedImageIsImmutableWithItsNameAsETag() throws Exception {
+		mockMvc.perform(get("/images/" + HASHED_IMAGE))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + HASHED_IMAGE + "\""))
+				.andExpect(content().bytes(CONTENT));
+	}
+
+	@Test
+	void variantIsImmutableToo() throws Exception {
+		mockMvc.perform(get("/images/variants/" + VARIANT))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + VARIANT + "\""));
+	}
+
+	@Test
+	void otherImagesAreRevalidatedWithATimeAndLengthETag() throws Exception {
+		long lastModified = Files.getLastModifiedTime(folder.resolve(LEGACY_IMAGE)).toMillis();
+
+		mockMvc.perform(get("/images/" + LEGACY_IMAGE))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+				.andExpect(header().string(HttpHeaders.ETAG,
+						"\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(CONTENT.length) + "\""));
+	}
+
+	@Test
+	void matchingETagGetsNotModified() throws Exception {
+		mockMvc.perform(get("/images/" + HASHED_IMAGE).header(HttpHeaders.IF_NONE_MATCH, "\"" + HASHED_IMAGE + "\""))
+				.andExpect(status().isNotModified())
+				.andExpect(content().bytes(new byte[0]));
+	}
+
+	@Test
+	void rangeRequestGetsPartialContent() throws Exception {
+		mockMvc.perform(get("/images/" + HASHED_IMAGE).header(HttpHeaders.RANGE, "bytes=5-9"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/" + CONTENT.length))
+				.andExpect(content().bytes("56789".getBytes()));
+	}
+
+	@Test
+	void precompressedSidecarIsServedWhenAccepted() throws Exception {
+		MvcResult result = mockMvc.perform(get("/images/" + HASHED_IMAGE).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andReturn();
+
+		assertThat(result.getResponse().getContentAsByteArray()).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	void missingContentAddressedImageIsNotCachedAsImmutable() throws Exception {
+		mockMvc.perform(get("/images/" + "b".repeat(64) + ".png"))
+				.andExpect(status().isNotFound())
+				.andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+	}
+
+	@Configuration
+	@EnableWebMvc
+	@Import(WebMvcConfig.class)
+	static class Config {
+	}
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.project.security.jwt;
+
+import com.ecommerce.project.Benchmarks;
+import com.ecommerce.project.repositories.RevokedTokenRepository;
+import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.security.services.RoleChangeTracker;
+import com.ecommerce.project.security.services.TokenRevocationService;
+import com.ecommerce.project.security.services.UserDetailsImpl;
+import com.ecommerce.project.security.services.UserDetailsServiceImpl;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cost of authenticating a request from the roles signed into its token: signature check,
+ * deny-list lookup and role version check. The user details service is a mock that fails
+ * the benchmark's sanity test if the claims path ever falls back to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthTokenFilterBenchmark {
+
+	private static final String COOKIE_NAME = "springBootEcommerce";
+
+	private final AuthTokenFilter filter = new AuthTokenFilter();
+
+	private final JwtUtils jwtUtils = new JwtUtils();
+
+	private UserDetailsServiceImpl userDetailsService;
+
+	private String token;
+
+	@Setup
+	public void createFilter() {
+		ReflectionTestUtils.setField(jwtUtils, "jwtSecret",
+				"mySecretKey123912738aopsgjnspkmndfsopkvajoirjg94gf2opfng2moknm");
+		ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_000_000);
+		ReflectionTestUtils.setField(jwtUtils, "jwtCookie", COOKIE_NAME);
+		jwtUtils.init();
+
+		TokenRevocationService tokenRevocationService = new TokenRevocationService();
+		ReflectionTestUtils.setField(tokenRevocationService, "revokedTokenRepository", mock(RevokedTokenRepository.class));
+		ReflectionTestUtils.setField(tokenRevocationService, "expectedTokens", 100_000L);
+		tokenRevocationService.load();
+
+		RoleChangeTracker roleChangeTracker = new RoleChangeTracker();
+		ReflectionTestUtils.setField(roleChangeTracker, "userRepository", mock(UserRepository.class));
+		ReflectionTestUtils.setField(roleChangeTracker, "jwtExpirationMs", 3_000_000L);
+		roleChangeTracker.load();
+
+		userDetailsService = mock(UserDetailsServiceImpl.class);
+		when(userDetailsService.loadUserByUsername(any())).thenThrow(new AssertionError("loaded the user"));
+
+		ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+		ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+		ReflectionTestUtils.setField(filter, "roleChangeTracker", roleChangeTracker);
+		ReflectionTestUtils.setField(filter, "tokenRevocationService", tokenRevocationService);
+
+		UserDetailsImpl user = new UserDetailsImpl(1L, "user1", "user1@example.com", null,
+				List.of(new SimpleGrantedAuthority("ROLE_USER")));
+		token = jwtUtils.generateTokenFromUser(user);
+	}
+
+	@Benchmark
+	public Authentication authenticateFromClaims() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/carts/users/cart");
+		request.setCookies(new Cookie(COOKIE_NAME, token));
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		SecurityContextHolder.clearContext();
+		return authentication;
+	}
+
+	@Benchmark
+	public Object verifySignatureOnly() {
+		return jwtUtils.parseClaims(token);
+	}
+
+	@Test
+	void claimsPathDoesNotLoadTheUser() throws Exception {
+		createFilter();
+
+		Authentication authentication = authenticateFromClaims();
+
+		assertThat(authentication).isNotNull();
+		assertThat(authentication.getName()).isEqualTo("user1");
+		verify(userDetailsService, never()).loadUserByUsername(any());
+	}
+
+	@Test
+	@Tag("benchmark")
+	void runBenchmark() throws Exception {
+		assertThat(Benchmarks.run(getClass())).isNotEmpty();
+	}
+}
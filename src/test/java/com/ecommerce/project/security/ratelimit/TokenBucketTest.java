@@ -0,0 +1,84 @@
+package com.ecommerce.project.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+	@Test
+	void admitsABurstUpToCapacity() {
+		TokenBucket bucket = new TokenBucket(5, 1);
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(bucket.tryConsume()).isZero();
+		}
+		long wait = bucket.tryConsume();
+
+		assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Test
+	void refillsOverTime() throws InterruptedException {
+		// one token every 50 ms
+		TokenBucket bucket = new TokenBucket(2, 20);
+		assertThat(bucket.tryConsume()).isZero();
+		assertThat(bucket.tryConsume()).isZero();
+		long wait = bucket.tryConsume();
+		assertThat(wait).isPositive();
+
+		TimeUnit.NANOSECONDS.sleep(wait + TimeUnit.MILLISECONDS.toNanos(10));
+
+		assertThat(bucket.tryConsume()).isZero();
+	}
+
+	@Test
+	void rejectedRequestsDoNotTakeTokens() {
+		TokenBucket bucket = new TokenBucket(1, 1);
+		assertThat(bucket.tryConsume()).isZero();
+
+		long firstWait = bucket.tryConsume();
+		long secondWait = bucket.tryConsume();
+
+		// a rejection does not push the next token further out
+		assertThat(secondWait).isPositive().isLessThanOrEqualTo(firstWait);
+	}
+
+	@Test
+	void concurrentCallersNeverExceedCapacity() throws Exception {
+		int capacity = 50;
+		// practically no refill during the test
+		TokenBucket bucket = new TokenBucket(capacity, 0.001);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger admitted = new AtomicInteger();
+		try {
+			List<Future<?>> callers = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				callers.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < 100; i++) {
+						if (bucket.tryConsume() == 0) {
+							admitted.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> caller : callers) {
+				caller.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(admitted).hasValue(capacity);
+	}
+}
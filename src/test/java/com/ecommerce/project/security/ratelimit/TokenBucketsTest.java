@@ -0,0 +1,70 @@
+package com.ecommerce.project.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketsTest {
+
+	@Test
+	void concurrentFirstRequestsShareOneBucket() throws Exception {
+		// practically no refill during the test
+		TokenBuckets buckets = new TokenBuckets(1, 0.001, 100);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Long>> callers = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				callers.add(executor.submit(() -> {
+					start.await();
+					return buckets.get("ip:10.0.0.1").tryConsume();
+				}));
+			}
+			start.countDown();
+			int admitted = 0;
+			for (Future<Long> caller : callers) {
+				if (caller.get(10, TimeUnit.SECONDS) == 0) {
+					admitted++;
+				}
+			}
+
+			assertThat(admitted).isEqualTo(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void dropsFullBucketsBeyondTheBound() {
+		TokenBuckets buckets = new TokenBuckets(5, 0.001, 10);
+		TokenBucket busy = buckets.get("busy");
+		busy.tryConsume();
+
+		for (int i = 0; i < 10; i++) {
+			buckets.get("idle-" + i);
+		}
+
+		// the untouched buckets are full and go first, the drained one keeps its state
+		assertThat(buckets.size()).isLessThanOrEqualTo(10);
+		assertThat(buckets.get("busy")).isSameAs(busy);
+	}
+
+	@Test
+	void dropsTheLongestIdleBucketsWhenNoneIsFull() {
+		TokenBuckets buckets = new TokenBuckets(5, 0.001, 10);
+		for (int i = 0; i < 11; i++) {
+			buckets.get("client-" + i).tryConsume();
+		}
+		TokenBucket latest = buckets.get("client-10");
+
+		buckets.get("client-11").tryConsume();
+
+		assertThat(buckets.size()).isLessThanOrEqualTo(10);
+		assertThat(buckets.get("client-10")).isSameAs(latest);
+	}
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.model.AppRole;
+import com.ecommerce.project.model.Role;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repositories.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Role versions are persisted, so a role change is noticed by instances that did not make it.
+ */
+class RoleChangeTrackerTest extends PostgresIntegrationTest {
+
+	@Autowired
+	private RoleChangeTracker roleChangeTracker;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Test
+	void roleChangeOutdatesEarlierTokens() {
+		User user = userRepository.findById(createCustomer(Map.of()).userId()).orElseThrow();
+		assertThat(roleChangeTracker.isCurrent(user.getUserName(), user.getRoleVersion())).isTrue();
+
+		User changed = roleChangeTracker.changeRoles(user, Set.of(role(AppRole.ROLE_SELLER)));
+
+		assertThat(changed.getRoleVersion()).isEqualTo(1);
+		assertThat(userRepository.findById(user.getUserId()).orElseThrow().getRoleVersion()).isEqualTo(1);
+		assertThat(roleChangeTracker.isCurrent(user.getUserName(), 0)).isFalse();
+		assertThat(roleChangeTracker.isCurrent(user.getUserName(), 1)).isTrue();
+	}
+
+	@Test
+	void roleChangeByAnotherInstanceIsPolled() {
+		User user = userRepository.findById(createCustomer(Map.of()).userId()).orElseThrow();
+
+		// stored the way another instance's tracker stores it
+		user.setRoles(Set.of(role(AppRole.ROLE_SELLER)));
+		user.setRoleVersion(1);
+		user.setRolesChangedAt(Instant.now());
+		userRepository.save(user);
+		assertThat(roleChangeTracker.isCurrent(user.getUserName(), 0)).isTrue();
+
+		roleChangeTracker.pollRoleChanges();
+
+		assertThat(roleChangeTracker.isCurrent(user.getUserName(), 0)).isFalse();
+		assertThat(roleChangeTracker.isCurrent(user.getUserName(), 1)).isTrue();
+	}
+
+	@Test
+	void tokensWithoutARoleVersionAreNeverTrusted() {
+		assertThat(roleChangeTracker.isCurrent("nobody", null)).isFalse();
+	}
+
+	private Role role(AppRole roleName) {
+		return roleRepository.findByRoleName(roleName).orElseThrow();
+	}
+}
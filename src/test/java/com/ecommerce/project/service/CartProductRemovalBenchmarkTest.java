@@ -0,0 +1,83 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Removing a product held in 50k carts with the batched statements against the per-cart
+ * path deleteProduct used before. Carts are generated with generate_series; run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CartProductRemovalBenchmarkTest extends PostgresIntegrationTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(CartProductRemovalBenchmarkTest.class);
+
+	private static final int CARTS = 50_000;
+
+	private static final double PRICE = 12.5;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private CartBulkUpdater cartBulkUpdater;
+
+	@Autowired
+	private CartService cartService;
+
+	@Test
+	void batchedAgainstPerCartRemoval() {
+		Category category = createCategory();
+		Product batched = createProduct(category, 100, PRICE);
+		Product perCart = createProduct(category, 100, PRICE);
+		List<Long> batchedCarts = generateCartsHolding(batched);
+		List<Long> perCartCarts = generateCartsHolding(perCart);
+
+		// a removal can only run once, so each path is timed on its own product
+		long start = System.nanoTime();
+		int removed = cartBulkUpdater.removeProduct(batched.getProductId());
+		Duration batchedTime = Duration.ofNanos(System.nanoTime() - start);
+
+		start = System.nanoTime();
+		perCartCarts.forEach(cartId -> cartService.deleteProductFromCart(cartId, perCart.getProductId()));
+		Duration perCartTime = Duration.ofNanos(System.nanoTime() - start);
+
+		logger.info("Removing a product from {} carts: batched {} ms, per cart {} ms",
+				CARTS, batchedTime.toMillis(), perCartTime.toMillis());
+		assertThat(removed).isEqualTo(CARTS);
+		assertThat(remainingTotal(batchedCarts)).isZero();
+		assertThat(remainingTotal(perCartCarts)).isZero();
+	}
+
+	// every cart holds two units of the product and nothing else
+	private List<Long> generateCartsHolding(Product product) {
+		List<Long> cartIds = jdbcTemplate.queryForList("""
+				INSERT INTO carts (total_price) SELECT ? FROM generate_series(1, ?) RETURNING cart_id
+				""", Long.class, 2 * PRICE, CARTS);
+		jdbcTemplate.update("""
+				INSERT INTO cart_items (cart_item_id, cart_id, product_id, quantity, discount, product_price)
+				SELECT nextval('cart_items_seq'), cart_id, ?, 2, 0, ? FROM unnest(?::bigint[]) AS cart_id
+				""", product.getProductId(), PRICE, cartIds.toArray(Long[]::new));
+		jdbcTemplate.execute("ANALYZE carts");
+		jdbcTemplate.execute("ANALYZE cart_items");
+		return cartIds;
+	}
+
+	private double remainingTotal(List<Long> cartIds) {
+		return jdbcTemplate.queryForObject("SELECT coalesce(sum(total_price), 0) FROM carts WHERE cart_id = ANY(?::bigint[])",
+				Double.class, (Object) cartIds.toArray(Long[]::new));
+	}
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIExceptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileServiceImplTest {
+
+	private static final byte[] JPEG = withBody(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0});
+	private static final byte[] PNG = withBody(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+	private static final byte[] GIF = withBody("GIF89a".getBytes(StandardCharsets.US_ASCII));
+	private static final byte[] WEBP = withBody("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII));
+	// a RIFF container that is no WebP image
+	private static final byte[] WAVE = withBody("RIFF\0\0\0\0WAVEfmt ".getBytes(StandardCharsets.US_ASCII));
+
+	@TempDir
+	private Path folder;
+
+	private final FileServiceImpl fileService = new FileServiceImpl();
+
+	@BeforeEach
+	void configure() {
+		ReflectionTestUtils.setField(fileService, "maxBytes", 1024L);
+		ReflectionTestUtils.setField(fileService, "allowedTypes",
+				List.of("image/jpeg", "image/png", "image/gif", "image/webp"));
+	}
+
+	@Test
+	void namesTheFileByHashAndDetectedType() throws Exception {
+		String name = upload("photo.png", null, JPEG);
+
+		assertThat(name).isEqualTo(sha256(JPEG) + ".jpg");
+		assertThat(Files.readAllBytes(folder.resolve(name))).isEqualTo(JPEG);
+	}
+
+	@Test
+	void detectsEachTypeFromItsMagicBytes() throws Exception {
+		assertThat(upload("a", "image/png", PNG)).endsWith(".png");
+		assertThat(upload("b", "image/gif", GIF)).endsWith(".gif");
+		assertThat(upload("c", "image/webp", WEBP)).endsWith(".webp");
+	}
+
+	@Test
+	void rejectsRiffFilesThatAreNotWebp() {
+		assertThatThrownBy(() -> upload("sound.webp", "image/webp", WAVE))
+				.isInstanceOf(APIExceptions.class)
+				.hasMessageStartingWith("Only ");
+	}
+
+	@Test
+	void rejectsTypesThatAreNotAllowed() {
+		ReflectionTestUtils.setField(fileService, "allowedTypes", List.of("image/jpeg"));
+
+		assertThatThrownBy(() -> upload("a.png", "image/png", PNG)).isInstanceOf(APIExceptions.class);
+	}
+
+	@Test
+	void acceptsGenericAndAliasContentTypes() throws Exception {
+		assertThat(upload("a", "image/jpg", JPEG)).endsWith(".jpg");
+		assertThat(upload("b", "image/pjpeg", JPEG)).endsWith(".jpg");
+		assertThat(upload("c", "image/x-png", PNG)).endsWith(".png");
+		assertThat(upload("d", "application/octet-stream", PNG)).endsWith(".png");
+		assertThat(upload("e", "image/*", PNG)).endsWith(".png");
+		assertThat(upload("f", "not a media type", PNG)).endsWith(".png");
+	}
+
+	@Test
+	void rejectsADeclaredTypeNamingAnotherFormat() {
+		assertThatThrownBy(() -> upload("a.png", "image/png", JPEG))
+				.isInstanceOf(APIExceptions.class)
+				.hasMessageContaining("does not match");
+	}
+
+	@Test
+	void enforcesTheSizeLimitWhileStreaming() throws Exception {
+		byte[] large = Arrays.copyOf(JPEG, 4096);
+		// the declared size passes the up-front check, the limit applies to the bytes read
+		MockMultipartFile file = new MockMultipartFile("image", "large.jpg", "image/jpeg", large) {
+			@Override
+			public long getSize() {
+				return 100;
+			}
+		};
+
+		assertThatThrownBy(() -> fileService.uploadImage(folder.toString(), file))
+				.isInstanceOf(APIExceptions.class)
+				.hasMessageContaining("larger than 1024 bytes");
+		assertThat(filesIn(folder)).isEmpty();
+	}
+
+	@Test
+	void storesTheSameImageOnce() throws Exception {
+		String first = upload("first.jpg", "image/jpeg", JPEG);
+		String second = upload("second.jpg", "image/jpeg", JPEG);
+
+		assertThat(second).isEqualTo(first);
+		// no temporary files are left behind either
+		assertThat(filesIn(folder)).containsExactly(first);
+	}
+
+	private String upload(String originalName, String contentType, byte[] content) throws Exception {
+		return fileService.uploadImage(folder.toString(), new MockMultipartFile("image", originalName, contentType, content));
+	}
+
+	private static List<String> filesIn(Path folder) throws Exception {
+		try (Stream<Path> files = Files.list(folder)) {
+			return files.map(file -> file.getFileName().toString()).toList();
+		}
+	}
+
+	private static byte[] withBody(byte[] header) {
+		byte[] content = Arrays.copyOf(header, header.length + 32);
+		Arrays.fill(content, header.length, content.length, (byte) 7);
+		return content;
+	}
+
+	private static String sha256(byte[] content) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+	}
+}
@@ -0,0 +1,128 @@
+package com.ecommerce.project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantServiceTest {
+
+	private static final String IMAGE = "0123abcd.png";
+
+	@TempDir
+	private Path folder;
+
+	private final ImageVariantService imageVariantService = new ImageVariantService();
+
+	@BeforeEach
+	void start() {
+		ReflectionTestUtils.setField(imageVariantService, "path", folder.toString());
+		ReflectionTestUtils.setField(imageVariantService, "poolSize", 1);
+		ReflectionTestUtils.setField(imageVariantService, "queueCapacity", 10);
+		ReflectionTestUtils.setField(imageVariantService, "maxPixels", 1_000_000L);
+		imageVariantService.init();
+	}
+
+	@AfterEach
+	void stop() {
+		imageVariantService.shutdown();
+	}
+
+	@Test
+	void generatesEveryVariantWithinItsSize() throws Exception {
+		ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), "png", folder.resolve(IMAGE).toFile());
+
+		imageVariantService.generate(IMAGE);
+		Map<String, String> variants = awaitVariants(IMAGE);
+
+		assertThat(variants).containsExactly(
+				Map.entry("thumbnail", "variants/0123abcd-thumbnail.jpg"),
+				Map.entry("card", "variants/0123abcd-card.jpg"),
+				Map.entry("detail", "variants/0123abcd-detail.jpg"));
+		BufferedImage thumbnail = ImageIO.read(folder.resolve("variants/0123abcd-thumbnail.jpg").toFile());
+		assertThat(thumbnail.getWidth()).isEqualTo(150);
+		assertThat(thumbnail.getHeight()).isEqualTo(113);
+		// never upscaled
+		assertThat(ImageIO.read(folder.resolve("variants/0123abcd-detail.jpg").toFile()).getWidth()).isEqualTo(800);
+	}
+
+	@Test
+	void advertisesNoVariantsUntilAllExist() throws Exception {
+		Path variantFolder = Files.createDirectories(folder.resolve("variants"));
+		Files.writeString(variantFolder.resolve("0123abcd-thumbnail.jpg"), "");
+		Files.writeString(variantFolder.resolve("0123abcd-card.jpg"), "");
+
+		assertThat(imageVariantService.availableVariants(IMAGE)).isEmpty();
+
+		Files.writeString(variantFolder.resolve("0123abcd-detail.jpg"), "");
+		assertThat(imageVariantService.availableVariants(IMAGE)).hasSize(3);
+	}
+
+	@Test
+	void undecodableImageGetsAFailureMarker() throws Exception {
+		Files.writeString(folder.resolve("0123abcd.webp"), "RIFF....WEBPVP8 not decodable by ImageIO");
+
+		imageVariantService.generate("0123abcd.webp");
+
+		Path marker = folder.resolve("variants/0123abcd.failed");
+		awaitFile(marker);
+		assertThat(Files.readString(marker)).isEqualTo("no decoder for the format");
+		assertThat(imageVariantService.availableVariants("0123abcd.webp")).isEmpty();
+	}
+
+	@Test
+	void imageOverThePixelLimitGetsAFailureMarker() throws Exception {
+		ImageIO.write(new BufferedImage(1001, 1000, BufferedImage.TYPE_INT_RGB), "png", folder.resolve(IMAGE).toFile());
+
+		imageVariantService.generate(IMAGE);
+
+		Path marker = folder.resolve("variants/0123abcd.failed");
+		awaitFile(marker);
+		assertThat(Files.readString(marker)).contains("exceed the limit");
+		assertThat(Files.exists(folder.resolve("variants/0123abcd-thumbnail.jpg"))).isFalse();
+	}
+
+	@Test
+	void failedImagesAreNotLookedUpAgain() throws Exception {
+		Path variantFolder = Files.createDirectories(folder.resolve("variants"));
+		Files.writeString(variantFolder.resolve("0123abcd.failed"), "no decoder for the format");
+		assertThat(imageVariantService.availableVariants(IMAGE)).isEmpty();
+
+		// the remembered failure answers without reading the folder again
+		Files.delete(variantFolder.resolve("0123abcd.failed"));
+		for (String variant : new String[]{"thumbnail", "card", "detail"}) {
+			Files.writeString(variantFolder.resolve("0123abcd-" + variant + ".jpg"), "");
+		}
+
+		assertThat(imageVariantService.availableVariants(IMAGE)).isEmpty();
+	}
+
+	private Map<String, String> awaitVariants(String imageName) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		Map<String, String> variants = imageVariantService.availableVariants(imageName);
+		while (variants.isEmpty() && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+			variants = imageVariantService.availableVariants(imageName);
+		}
+		return variants;
+	}
+
+	// waits for the file's content too, it exists before it is written
+	private static void awaitFile(Path file) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while ((!Files.exists(file) || Files.size(file) == 0) && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(file).isNotEmptyFile();
+	}
+}
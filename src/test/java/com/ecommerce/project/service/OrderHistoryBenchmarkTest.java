@@ -0,0 +1,142 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.Timings;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.payload.OrderResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order history pages at 10M orders, generated with generate_series over three years and
+ * 100k customers: a customer's history and the admin listings (all orders, by status, by
+ * date range), first page and deep in, against the OFFSET paging with a count it replaced.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class OrderHistoryBenchmarkTest extends PostgresIntegrationTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderHistoryBenchmarkTest.class);
+
+	private static final int ORDERS = 10_000_000;
+
+	private static final int CUSTOMERS = 100_000;
+
+	private static final int CHUNK = 1_000_000;
+
+	private static final int PAGE_SIZE = 20;
+
+	// pages followed through the cursor before timing a deep page
+	private static final int DEEP_PAGE = 500;
+
+	private static final int RUNS = 20;
+
+	private static final String CUSTOMER = "c42@hist.io";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Test
+	void orderHistoryPages() {
+		generateOrdersUpTo(ORDERS);
+		LocalDate today = LocalDate.now();
+
+		time("customer history", CUSTOMER, null, null, null);
+		time("all orders", null, null, null, null);
+		time("rejected orders", null, OrderFulfillmentPipeline.REJECTED, null, null);
+		time("orders of last month", null, null, today.minusMonths(1), today);
+	}
+
+	private void time(String listing, String email, String status, LocalDate from, LocalDate to) {
+		Duration first = Timings.median(RUNS, () -> orderService.getOrderHistory(email, status, from, to, PAGE_SIZE, null));
+
+		// follow the cursor as a client would; short listings end before the deep page
+		String cursor = null;
+		int page = 0;
+		OrderResponse response = orderService.getOrderHistory(email, status, from, to, PAGE_SIZE, null);
+		while (!response.isLastPage() && page < DEEP_PAGE) {
+			cursor = response.getNextCursor();
+			response = orderService.getOrderHistory(email, status, from, to, PAGE_SIZE, cursor);
+			page++;
+		}
+		String deepCursor = cursor;
+		Duration deep = Timings.median(RUNS, () -> orderService.getOrderHistory(email, status, from, to, PAGE_SIZE, deepCursor));
+		int deepPage = page;
+		Duration offset = Timings.median(RUNS, () -> offsetPage(email, status, from, to, deepPage));
+
+		logger.info("{} orders, {}: first page {} ms, page {} {} ms by cursor, {} ms by OFFSET and count",
+				ORDERS, listing, first.toMillis(), deepPage, deep.toMillis(), offset.toMillis());
+	}
+
+	// the paging the history used before keyset cursors: OFFSET into the sorted rows plus a count
+	private void offsetPage(String email, String status, LocalDate from, LocalDate to, int page) {
+		StringBuilder where = new StringBuilder(" WHERE true");
+		List<Object> args = new ArrayList<>();
+		if (email != null) {
+			where.append(" AND email = ?");
+			args.add(email);
+		}
+		if (status != null) {
+			where.append(" AND order_status = ?");
+			args.add(status);
+		}
+		if (from != null) {
+			where.append(" AND order_date >= ? AND order_date <= ?");
+			args.add(from);
+			args.add(to);
+		}
+		List<Object> pageArgs = new ArrayList<>(args);
+		pageArgs.add(PAGE_SIZE);
+		pageArgs.add(page * PAGE_SIZE);
+		assertThat(jdbcTemplate.queryForList("SELECT order_id FROM orders" + where
+				+ " ORDER BY order_date DESC, order_id DESC LIMIT ? OFFSET ?", Long.class, pageArgs.toArray())).isNotNull();
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM orders" + where, Long.class, args.toArray())).isNotNull();
+	}
+
+	/**
+	 * One item per order, in chunks so no single statement holds millions of returned ids;
+	 * most orders are accepted, every tenth paid and every fiftieth rejected.
+	 */
+	private void generateOrdersUpTo(int orders) {
+		Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM orders", Long.class);
+		if (existing >= orders) {
+			return;
+		}
+		Category category = createCategory();
+		Long[] productIds = new Long[100];
+		for (int i = 0; i < productIds.length; i++) {
+			productIds[i] = createProduct(category, 100, 10 + i).getProductId();
+		}
+		for (long start = existing; start < orders; start += CHUNK) {
+			jdbcTemplate.update("""
+					WITH new_orders AS (
+					    INSERT INTO orders (order_id, email, order_date, total_amount, order_status)
+					    SELECT nextval('orders_seq'), 'c' || i % ? || '@hist.io', current_date - (i % 1095)::int, 20.0,
+					           CASE WHEN i % 50 = 0 THEN ? WHEN i % 10 = 0 THEN ? ELSE ? END
+					    FROM generate_series(?, ?) AS i
+					    RETURNING order_id
+					)
+					INSERT INTO order_items (order_item_id, product_id, order_id, quantity, discount, ordered_product_price)
+					SELECT nextval('order_items_seq'), (?::bigint[])[1 + order_id % 100], order_id, 2, 0, 10.0
+					FROM new_orders
+					""", CUSTOMERS, OrderFulfillmentPipeline.REJECTED, PaymentReconciler.PAYMENT_CONFIRMED,
+					OrderFulfillmentPipeline.ACCEPTED, start + 1, Math.min(start + CHUNK, orders), productIds);
+		}
+		jdbcTemplate.execute("ANALYZE orders");
+		jdbcTemplate.execute("ANALYZE order_items");
+	}
+}
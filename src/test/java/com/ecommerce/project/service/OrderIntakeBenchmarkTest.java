@@ -0,0 +1,180 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.Timings;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkout throughput: asynchronous intake offered 1k checkouts per second, and the
+ * synchronous checkout as fast as it goes, for comparison. Customers, addresses and carts
+ * are generated with generate_series; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class OrderIntakeBenchmarkTest extends PostgresIntegrationTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(OrderIntakeBenchmarkTest.class);
+
+	private static final int RATE_PER_SECOND = 1_000;
+
+	private static final int CHECKOUTS = 5_000;
+
+	private static final int THREADS = 64;
+
+	private static final int PRODUCTS = 20;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderFulfillmentPipeline orderFulfillmentPipeline;
+
+	@Test
+	void asynchronousIntakeAtOneThousandPerSecond() throws Exception {
+		List<Checkout> checkouts = generateCheckouts(CHECKOUTS);
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE_PER_SECOND;
+
+		long start = System.nanoTime();
+		long[] latencies = run(checkouts, (index, checkout) -> {
+			// paced: checkout i is sent at start + i / rate, whatever the earlier ones took
+			LockSupport.parkNanos(start + index * intervalNanos - System.nanoTime());
+			orderService.submitOrder(checkout.email(), checkout.addressId(), "card",
+					"Stripe", "pi_bench", "succeeded", "Payment succeeded");
+		});
+		Duration intake = Duration.ofNanos(System.nanoTime() - start);
+
+		// orders that found the stage queues full wait for the recovery scan, run it until all are done
+		long pending;
+		while ((pending = pendingOrders(checkouts)) > 0) {
+			orderFulfillmentPipeline.resumePending();
+			Thread.sleep(200);
+		}
+		Duration fulfilled = Duration.ofNanos(System.nanoTime() - start);
+
+		Arrays.sort(latencies);
+		logger.info("{} checkouts offered at {}/s: intake {}/s (p50 {} ms, p99 {} ms), all fulfilled after {} ms ({}/s)",
+				CHECKOUTS, RATE_PER_SECOND, Math.round(Timings.perSecond(CHECKOUTS, intake)),
+				TimeUnit.NANOSECONDS.toMillis(latencies[CHECKOUTS / 2]),
+				TimeUnit.NANOSECONDS.toMillis(latencies[CHECKOUTS * 99 / 100]),
+				fulfilled.toMillis(), Math.round(Timings.perSecond(CHECKOUTS, fulfilled)));
+		assertThat(pending).isZero();
+	}
+
+	@Test
+	void synchronousCheckoutThroughput() throws Exception {
+		List<Checkout> checkouts = generateCheckouts(CHECKOUTS);
+
+		long start = System.nanoTime();
+		long[] latencies = run(checkouts, (index, checkout) -> orderService.placeOrder(checkout.email(),
+				checkout.addressId(), "card", "Stripe", "pi_bench", "succeeded", "Payment succeeded"));
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+		Arrays.sort(latencies);
+		logger.info("{} synchronous checkouts on {} threads: {}/s (p50 {} ms, p99 {} ms)",
+				CHECKOUTS, THREADS, Math.round(Timings.perSecond(CHECKOUTS, elapsed)),
+				TimeUnit.NANOSECONDS.toMillis(latencies[CHECKOUTS / 2]),
+				TimeUnit.NANOSECONDS.toMillis(latencies[CHECKOUTS * 99 / 100]));
+	}
+
+	/**
+	 * Runs every checkout on the thread pool and returns the latency of each.
+	 */
+	private long[] run(List<Checkout> checkouts, CheckoutCall call) throws Exception {
+		long[] latencies = new long[checkouts.size()];
+		AtomicInteger next = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				workers.add(executor.submit(() -> {
+					int index;
+					while ((index = next.getAndIncrement()) < checkouts.size()) {
+						long sent = System.nanoTime();
+						call.checkout(index, checkouts.get(index));
+						latencies[index] = System.nanoTime() - sent;
+					}
+					return null;
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get(10, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return latencies;
+	}
+
+	private long pendingOrders(List<Checkout> checkouts) {
+		return jdbcTemplate.queryForObject("""
+				SELECT count(*) FROM orders WHERE email = ANY(?::varchar[]) AND order_status NOT IN (?, ?)
+				""", Long.class, checkouts.stream().map(Checkout::email).toArray(String[]::new),
+				OrderFulfillmentPipeline.ACCEPTED, OrderFulfillmentPipeline.REJECTED);
+	}
+
+	/**
+	 * Customers with an address and a cart of three products out of a small set, so
+	 * checkouts contend for the same stock rows like a sale would.
+	 */
+	private List<Checkout> generateCheckouts(int customers) {
+		Category category = createCategory();
+		List<Long> productIds = new ArrayList<>();
+		for (int i = 0; i < PRODUCTS; i++) {
+			productIds.add(createProduct(category, 1_000_000, 10.0).getProductId());
+		}
+		// username and email columns are limited to 20 and 25 characters
+		String prefix = "o" + UUID.randomUUID().toString().substring(0, 6);
+		jdbcTemplate.update("""
+				WITH new_users AS (
+				    INSERT INTO users (user_id, username, email, password)
+				    SELECT nextval('users_seq'), ? || i, ? || i || '@bench.io', '{noop}password'
+				    FROM generate_series(1, ?) AS i
+				    RETURNING user_id
+				), new_addresses AS (
+				    INSERT INTO address (address_id, street, building_name, city, state, country, pincode, user_id)
+				    SELECT nextval('address_seq'), 'Main Street', 'Building', 'Springfield', 'State', 'Country', '12345', user_id
+				    FROM new_users
+				), new_carts AS (
+				    INSERT INTO carts (user_id, total_price)
+				    SELECT user_id, 30.0 FROM new_users
+				    RETURNING cart_id
+				)
+				INSERT INTO cart_items (cart_item_id, cart_id, product_id, quantity, discount, product_price)
+				SELECT nextval('cart_items_seq'), cart_id, (?::bigint[])[1 + (cart_id + line * 7) % ?], 1, 0, 10.0
+				FROM new_carts CROSS JOIN generate_series(0, 2) AS line
+				""", prefix, prefix, customers, productIds.toArray(Long[]::new), PRODUCTS);
+		jdbcTemplate.execute("ANALYZE");
+		return jdbcTemplate.query("""
+				SELECT u.email, a.address_id FROM users u JOIN address a ON a.user_id = u.user_id
+				WHERE u.username LIKE ? || '%'
+				""", (row, rowNum) -> new Checkout(row.getString(1), row.getLong(2)), prefix);
+	}
+
+	private record Checkout(String email, Long addressId) {
+	}
+
+	@FunctionalInterface
+	private interface CheckoutCall {
+		void checkout(int index, Checkout checkout) throws Exception;
+	}
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.OrderDTO;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order items get pooled sequence ids, so Hibernate can send their inserts as one JDBC
+ * batch instead of a round trip per line.
+ */
+@Import(OrderItemBatchInsertTest.SqlRecorderConfig.class)
+class OrderItemBatchInsertTest extends PostgresIntegrationTest {
+
+	private static final int LINES = 12;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private SqlRecorder sqlRecorder;
+
+	@Test
+	void placeOrderInsertsItemsInOneBatch() {
+		Category category = createCategory();
+		Map<Product, Integer> cartLines = new HashMap<>();
+		for (int i = 0; i < LINES; i++) {
+			cartLines.put(createProduct(category, 10, 5.0 + i), 1);
+		}
+		Customer customer = createCustomer(cartLines);
+		sqlRecorder.clear();
+
+		OrderDTO order = orderService.placeOrder(customer.email(), customer.addressId(), "card",
+				"Stripe", "pi_test", "succeeded", "Payment succeeded");
+
+		assertThat(order.getOrderItems()).hasSize(LINES);
+		List<Execution> itemInserts = sqlRecorder.executionsOf("insert into order_items");
+		assertThat(itemInserts).hasSize(1);
+		assertThat(itemInserts.get(0).batch()).isTrue();
+		assertThat(itemInserts.get(0).batchSize()).isEqualTo(LINES);
+	}
+
+	record Execution(boolean batch, int batchSize, List<String> queries) {
+	}
+
+	static class SqlRecorder implements QueryExecutionListener {
+
+		private final List<Execution> executions = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		}
+
+		@Override
+		public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+			executions.add(new Execution(execInfo.isBatch(), execInfo.getBatchSize(),
+					queryInfoList.stream().map(QueryInfo::getQuery).toList()));
+		}
+
+		void clear() {
+			executions.clear();
+		}
+
+		List<Execution> executionsOf(String sqlPrefix) {
+			return executions.stream()
+					.filter(execution -> execution.queries().stream()
+							.anyMatch(query -> query.trim().toLowerCase().startsWith(sqlPrefix)))
+					.toList();
+		}
+	}
+
+	@TestConfiguration
+	static class SqlRecorderConfig {
+
+		@Bean
+		SqlRecorder sqlRecorder() {
+			return new SqlRecorder();
+		}
+
+		@Bean
+		static BeanPostProcessor recordingDataSource(ObjectProvider<SqlRecorder> sqlRecorder) {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (bean instanceof DataSource dataSource) {
+						return ProxyDataSourceBuilder.create(dataSource).listener(sqlRecorder.getObject()).build();
+					}
+					return bean;
+				}
+			};
+		}
+	}
+}
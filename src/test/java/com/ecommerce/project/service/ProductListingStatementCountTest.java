@@ -0,0 +1,94 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listings read ProductDTO projections: a fixed number of statements per page, whatever
+ * its size, and no Product entities loaded.
+ */
+class ProductListingStatementCountTest extends PostgresIntegrationTest {
+
+	private static final int PRODUCTS = 25;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductCache productCache;
+
+	private Category category;
+
+	@BeforeEach
+	void createProducts() {
+		category = createCategory();
+		for (int i = 0; i < PRODUCTS; i++) {
+			createProduct(category, 10, 10.0 + i);
+		}
+		productCache.evictAll();
+		statistics().clear();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {5, 20})
+	void pageWithTotalsTakesPageAndCountQuery(int pageSize) {
+		ProductResponse response = productService.getAllProducts(0, pageSize, "productId", "asc",
+				null, category.getCategoryName(), null, true);
+
+		assertThat(response.getContent()).hasSize(pageSize);
+		assertThat(response.getTotalElements()).isEqualTo(PRODUCTS);
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(2);
+		assertThat(productLoads()).isZero();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {5, 20})
+	void cursorPageTakesOneQuery(int pageSize) {
+		ProductResponse response = productService.getAllProducts(0, pageSize, "price", "desc",
+				null, category.getCategoryName(), "", false);
+
+		assertThat(response.getContent()).hasSize(pageSize);
+		assertThat(response.getNextCursor()).isNotNull();
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+
+		statistics().clear();
+		productService.getAllProducts(0, pageSize, "price", "desc",
+				null, category.getCategoryName(), response.getNextCursor(), false);
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+		assertThat(productLoads()).isZero();
+	}
+
+	@Test
+	void categoryPageLoadsOnlyTheCategory() {
+		ProductResponse response = productService.getProductByCategory(0, 10, "productId", "asc",
+				category.getCategoryId(), null);
+
+		assertThat(response.getContent()).hasSize(10);
+		// category lookup, page and count
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(3);
+		assertThat(productLoads()).isZero();
+	}
+
+	@Test
+	void cachedPageTakesNoQuery() {
+		productService.getAllProducts(0, 10, "productId", "asc", null, category.getCategoryName(), null, true);
+		statistics().clear();
+
+		productService.getAllProducts(0, 10, "productId", "asc", null, category.getCategoryName(), null, true);
+
+		assertThat(statistics().getPrepareStatementCount()).isZero();
+	}
+
+	private long productLoads() {
+		return statistics().getEntityStatistics(Product.class.getName()).getLoadCount();
+	}
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.Timings;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyword search from the inverted index against the {@code lower(product_name) LIKE '%kw%'}
+ * query it replaced, at 100k and 1M products. Products are generated in the database with
+ * generate_series; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ProductSearchBenchmarkTest extends PostgresIntegrationTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProductSearchBenchmarkTest.class);
+
+	private static final int PAGE_SIZE = 50;
+
+	private static final int RUNS = 20;
+
+	// whole words that are no substring of another generated word, so LIKE and the index agree
+	private static final List<String> KEYWORDS = List.of("shoe", "lamp", "chair", "watch", "desk");
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductSearchIndex productSearchIndex;
+
+	@Autowired
+	private ProductCache productCache;
+
+	@ParameterizedTest
+	@ValueSource(ints = {100_000, 1_000_000})
+	void indexAgainstLike(int products) {
+		generateProductsUpTo(products);
+		productSearchIndex.rebuild();
+
+		for (String keyword : KEYWORDS) {
+			long likeTotal = likeSearch(keyword);
+			assertThat(indexSearch(keyword).getTotalElements()).isEqualTo(likeTotal);
+
+			Duration index = Timings.median(RUNS, () -> indexSearch(keyword));
+			Duration like = Timings.median(RUNS, () -> likeSearch(keyword));
+			logger.info("{} products, keyword '{}' ({} matches): index {} ms, LIKE {} ms",
+					products, keyword, likeTotal, index.toMillis(), like.toMillis());
+		}
+	}
+
+	private ProductResponse indexSearch(String keyword) {
+		// listing pages are cached, every run has to search
+		productCache.evictAll();
+		return productService.getProductByKeyWord(0, PAGE_SIZE, "productId", "asc", keyword);
+	}
+
+	// the query the keyword search ran before the index: one page plus a count, both scanning products
+	private long likeSearch(String keyword) {
+		Specification<Product> spec = (root, query, criteriaBuilder) ->
+				criteriaBuilder.like(criteriaBuilder.lower(root.get("productName")), "%" + keyword + "%");
+		List<ProductDTO> page = productRepository.findProductDTOs(spec, Sort.by("productId"), 0, PAGE_SIZE);
+		assertThat(page).isNotNull();
+		return productRepository.count(spec);
+	}
+
+	private void generateProductsUpTo(int products) {
+		Integer existing = jdbcTemplate.queryForObject("SELECT count(*) FROM products", Integer.class);
+		int missing = products - existing;
+		if (missing <= 0) {
+			return;
+		}
+		Category category = createCategory();
+		// nextval keeps clear of the id blocks Hibernate's pooled optimizer hands out
+		jdbcTemplate.update("""
+				INSERT INTO products (product_id, product_name, description, image, quantity, price, discount,
+				                      special_price, category_id)
+				SELECT nextval('products_seq'),
+				       'Item ' || i || ' ' || (ARRAY['red','blue','green','black','white','grey','pink','gold'])[1 + i % 8]
+				               || ' ' || (ARRAY['shirt','shoe','lamp','chair','table','watch','phone','cable','mug','desk'])[1 + i % 10],
+				       'Generated product number ' || i,
+				       'default.png', 100, 10 + i % 90, 0, 10 + i % 90, ?
+				FROM generate_series(1, ?) AS i
+				""", category.getCategoryId(), missing);
+		jdbcTemplate.execute("ANALYZE products");
+	}
+}
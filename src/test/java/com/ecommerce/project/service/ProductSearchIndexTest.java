@@ -0,0 +1,91 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIExceptions;
+import com.ecommerce.project.payload.ProductSearchDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductSearchIndexTest {
+
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSearchIndex();
+		index.index(List.of(
+				document(1L, "Red Running Shoe", "Light trail-running shoe", 40.0, "Shoes"),
+				document(2L, "Blue Desk Lamp", "LED lamp for the home office", 25.0, "Home"),
+				document(3L, "Shoehorn", "Long-handled, stainless steel", 8.0, "Shoes"),
+				document(4L, "Café Chair", "Bistro chair, oak", 60.0, "Home")));
+	}
+
+	@Test
+	void tokenizesOnNonAlphanumericsIgnoringCase() {
+		assertThat(search("TRAIL")).containsExactly(1L);
+		assertThat(search("handled")).containsExactly(3L);
+		assertThat(search("home-office")).containsExactly(2L);
+		assertThat(search("café")).containsExactly(4L);
+	}
+
+	@Test
+	void everyKeywordTokenMustPrefixSomeTokenOfTheProduct() {
+		assertThat(search("sho")).containsExactly(1L, 3L);
+		assertThat(search("red sho")).containsExactly(1L);
+		assertThat(search("red lamp")).isEmpty();
+		// prefixes only, no infix matches like LIKE '%horn%'
+		assertThat(search("horn")).isEmpty();
+	}
+
+	@Test
+	void blankKeywordMatchesEveryProduct() {
+		assertThat(search(" ")).containsExactly(1L, 2L, 3L, 4L);
+		assertThat(search(null)).containsExactly(1L, 2L, 3L, 4L);
+	}
+
+	@Test
+	void keywordWithoutTokensMatchesNothing() {
+		assertThat(search("!!!")).isEmpty();
+		assertThat(ProductSearchIndex.matches("!!!", "Red Running Shoe")).isFalse();
+		assertThat(ProductSearchIndex.matches(" ", "Red Running Shoe")).isTrue();
+	}
+
+	@Test
+	void categoryFilterMatchesTheWholeName() {
+		assertThat(index.search("sho", "Shoes", "productId", "asc")).containsExactly(1L, 3L);
+		assertThat(index.search("", "Home", "productId", "asc")).containsExactly(2L, 4L);
+		// equality, not the substring match of LIKE
+		assertThat(index.search("", "Shoe", "productId", "asc")).isEmpty();
+		assertThat(index.search("", "shoes", "productId", "asc")).isEmpty();
+	}
+
+	@Test
+	void sortsByTheRequestedFieldWithTheIdAsTieBreaker() {
+		assertThat(index.search("", null, "price", "desc")).containsExactly(4L, 1L, 2L, 3L);
+		assertThatThrownBy(() -> index.search("", null, "password", "asc")).isInstanceOf(APIExceptions.class);
+	}
+
+	@Test
+	void reindexingReplacesStaleTokens() {
+		index.index(List.of(document(1L, "Green Sandal", "Open sandal", 30.0, "Shoes")));
+
+		assertThat(search("running")).isEmpty();
+		assertThat(search("sandal")).containsExactly(1L);
+
+		index.remove(1L);
+		assertThat(search("sandal")).isEmpty();
+		assertThat(index.size()).isEqualTo(3);
+	}
+
+	private List<Long> search(String keyword) {
+		return index.search(keyword, null, "productId", "asc");
+	}
+
+	private static ProductSearchDocument document(Long id, String name, String description, Double price, String category) {
+		return new ProductSearchDocument(id, name, description, 10, price, 0.0, price, category);
+	}
+}
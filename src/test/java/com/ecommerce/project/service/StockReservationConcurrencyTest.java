@@ -0,0 +1,120 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.exceptions.APIExceptions;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderItemDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parallel checkouts of the same product: the set-based reservation must never sell more
+ * than the stock, and checkouts that find too little stock must fail as a whole.
+ */
+class StockReservationConcurrencyTest extends PostgresIntegrationTest {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Test
+	void parallelCheckoutsNeverOversell() throws Exception {
+		Category category = createCategory();
+		Product product = createProduct(category, 10, 25.0);
+		List<Customer> customers = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			customers.add(createCustomer(Map.of(product, 1)));
+		}
+
+		List<Future<OrderDTO>> checkouts = checkoutConcurrently(customers);
+
+		assertOutcome(checkouts, product, 10, 1);
+	}
+
+	@Test
+	void multiUnitCheckoutsFailWhenTheRestIsTooSmall() throws Exception {
+		Category category = createCategory();
+		Product product = createProduct(category, 7, 25.0);
+		List<Customer> customers = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			customers.add(createCustomer(Map.of(product, 2)));
+		}
+
+		List<Future<OrderDTO>> checkouts = checkoutConcurrently(customers);
+
+		// three orders take 6 units, the last unit cannot fill an order of 2
+		assertOutcome(checkouts, product, 7, 2);
+		assertThat(productRepository.findById(product.getProductId()).orElseThrow().getQuantity()).isEqualTo(1);
+	}
+
+	@Test
+	void shortageOnOneLineFailsTheWholeOrder() throws Exception {
+		Category category = createCategory();
+		Product scarce = createProduct(category, 1, 10.0);
+		Product plenty = createProduct(category, 100, 10.0);
+		List<Customer> customers = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			customers.add(createCustomer(Map.of(scarce, 1, plenty, 3)));
+		}
+
+		List<Future<OrderDTO>> checkouts = checkoutConcurrently(customers);
+
+		assertOutcome(checkouts, scarce, 1, 1);
+		// only the order that got the scarce product took from the other line
+		assertThat(productRepository.findById(plenty.getProductId()).orElseThrow().getQuantity()).isEqualTo(97);
+	}
+
+	private List<Future<OrderDTO>> checkoutConcurrently(List<Customer> customers) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(customers.size());
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<OrderDTO>> checkouts = new ArrayList<>();
+			for (Customer customer : customers) {
+				checkouts.add(executor.submit(() -> {
+					start.await();
+					return orderService.placeOrder(customer.email(), customer.addressId(), "card",
+							"Stripe", "pi_test", "succeeded", "Payment succeeded");
+				}));
+			}
+			start.countDown();
+			executor.shutdown();
+			assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+			return checkouts;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void assertOutcome(List<Future<OrderDTO>> checkouts, Product product, int stock, int unitsPerOrder)
+			throws InterruptedException {
+		int placed = 0;
+		int unitsSold = 0;
+		for (Future<OrderDTO> checkout : checkouts) {
+			try {
+				OrderDTO order = checkout.get();
+				placed++;
+				unitsSold += order.getOrderItems().stream()
+						.filter(item -> item.getProduct().getProductID().equals(product.getProductId()))
+						.mapToInt(OrderItemDTO::getQuantity)
+						.sum();
+			} catch (ExecutionException e) {
+				assertThat(e.getCause())
+						.isInstanceOf(APIExceptions.class)
+						.hasMessageContaining("Not enough stock");
+			}
+		}
+
+		assertThat(placed).isEqualTo(stock / unitsPerOrder);
+		assertThat(unitsSold).isEqualTo(placed * unitsPerOrder);
+		int remaining = productRepository.findById(product.getProductId()).orElseThrow().getQuantity();
+		assertThat(remaining).isEqualTo(stock - unitsSold).isNotNegative();
+	}
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIExceptions;
+import com.ecommerce.project.model.PaymentEvent;
+import com.ecommerce.project.payload.StripePaymentDTO;
+import com.stripe.Stripe;
+import com.stripe.model.PaymentIntent;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StubStripeServiceTest {
+
+	private final StubStripeService stripeService = new StubStripeService();
+
+	@Test
+	void sameIdempotencyKeyGivesTheSameIntent() {
+		StripePaymentDTO payment = new StripePaymentDTO();
+		payment.setAmount(2_500L);
+		payment.setCurrency("usd");
+
+		PaymentIntent first = stripeService.paymentIntent(payment, "checkout-1");
+
+		assertThat(first.getId()).startsWith("pi_stub_");
+		assertThat(first.getClientSecret()).startsWith(first.getId());
+		assertThat(first.getAmount()).isEqualTo(2_500L);
+		assertThat(stripeService.paymentIntent(payment, "checkout-1").getId()).isEqualTo(first.getId());
+		assertThat(stripeService.paymentIntent(payment, "checkout-2").getId()).isNotEqualTo(first.getId());
+	}
+
+	@Test
+	void parsesUnsignedPaymentIntentEvents() {
+		PaymentEvent event = stripeService.parseWebhookEvent(payload("payment_intent.succeeded", "payment_intent"), null);
+
+		assertThat(event.getEventId()).isEqualTo("evt_1");
+		assertThat(event.getEventType()).isEqualTo("payment_intent.succeeded");
+		assertThat(event.getPgPaymentId()).isEqualTo("pi_1");
+		assertThat(event.getPgStatus()).isEqualTo("succeeded");
+		assertThat(event.getAttempts()).isZero();
+	}
+
+	@Test
+	void ignoresOtherEventsAndRejectsMalformedPayloads() {
+		assertThat(stripeService.parseWebhookEvent(payload("charge.refunded", "charge"), null)).isNull();
+		assertThatThrownBy(() -> stripeService.parseWebhookEvent("{not json", null)).isInstanceOf(APIExceptions.class);
+	}
+
+	private static String payload(String type, String object) {
+		return """
+				{"id": "evt_1", "object": "event", "api_version": "%s", "created": 1700000000, "type": "%s",
+				 "data": {"object": {"id": "pi_1", "object": "%s", "status": "succeeded"}}}
+				""".formatted(Stripe.API_VERSION, type, object);
+	}
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.PostgresIntegrationTest;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Email and id of the logged-in user come from the principal without touching the
+ * database, and the User entity is loaded at most once per request.
+ */
+class AuthUtilQueryCountTest extends PostgresIntegrationTest {
+
+	@Autowired
+	private AuthUtil authUtil;
+
+	private User user;
+
+	@BeforeEach
+	void logIn() {
+		Customer customer = createCustomer(Map.of());
+		user = userRepository.findById(customer.userId()).orElseThrow();
+		UserDetailsImpl principal = new UserDetailsImpl(user.getUserId(), user.getUserName(), user.getEmail(),
+				user.getPassword(), List.of());
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		statistics().clear();
+	}
+
+	@AfterEach
+	void logOut() {
+		SecurityContextHolder.clearContext();
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void emailAndIdComeFromThePrincipal() {
+		assertThat(authUtil.loggedInEmail()).isEqualTo(user.getEmail());
+		assertThat(authUtil.loggedInUserId()).isEqualTo(user.getUserId());
+
+		assertThat(statistics().getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void userIsLoadedOncePerRequest() {
+		assertThat(authUtil.loggedInUser().getUserId()).isEqualTo(user.getUserId());
+		long firstLoad = statistics().getPrepareStatementCount();
+
+		authUtil.loggedInUser();
+		authUtil.loggedInUser();
+
+		assertThat(firstLoad).isPositive();
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(firstLoad);
+	}
+
+	@Test
+	void nextRequestLoadsTheUserAgain() {
+		authUtil.loggedInUser();
+		long firstLoad = statistics().getPrepareStatementCount();
+
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		authUtil.loggedInUser();
+
+		assertThat(statistics().getPrepareStatementCount()).isEqualTo(2 * firstLoad);
+	}
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+	@Test
+	void neverMissesAnAddedValue() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		List<String> tokenIds = randomIds(10_000);
+		tokenIds.forEach(filter::put);
+
+		assertThat(tokenIds).allMatch(filter::mightContain);
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTheTarget() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		randomIds(10_000).forEach(filter::put);
+
+		long falsePositives = randomIds(100_000).stream().filter(filter::mightContain).count();
+
+		assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		BloomFilter filter = new BloomFilter(0, 0.01);
+
+		assertThat(filter.mightContain("anything")).isFalse();
+		assertThat(filter.mightContain("")).isFalse();
+		filter.put("");
+		assertThat(filter.mightContain("")).isTrue();
+	}
+
+	@Test
+	void concurrentPutsAreAllVisible() throws Exception {
+		BloomFilter filter = new BloomFilter(40_000, 0.01);
+		int threads = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<List<String>> batches = new ArrayList<>();
+		try {
+			List<Future<?>> writers = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				List<String> batch = randomIds(10_000);
+				batches.add(batch);
+				writers.add(executor.submit(() -> batch.forEach(filter::put)));
+			}
+			for (Future<?> writer : writers) {
+				writer.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		batches.forEach(batch -> assertThat(batch).allMatch(filter::mightContain));
+	}
+
+	private static List<String> randomIds(int count) {
+		List<String> ids = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ids.add(UUID.randomUUID().toString());
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,157 @@
+package com.ecommerce.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+
+	@Test
+	void evictsLeastRecentlyUsedEntry() {
+		BoundedCache<String, Integer> cache = new BoundedCache<>(2, 60_000);
+		cache.put("a", 1);
+		cache.put("b", 2);
+
+		// reading "a" makes "b" the eldest
+		assertThat(cache.getIfPresent("a")).isEqualTo(1);
+		cache.put("c", 3);
+
+		assertThat(cache.getIfPresent("b")).isNull();
+		assertThat(cache.getIfPresent("a")).isEqualTo(1);
+		assertThat(cache.getIfPresent("c")).isEqualTo(3);
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.evictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void expiresEntriesAfterTheirTimeToLive() throws InterruptedException {
+		BoundedCache<String, Integer> cache = new BoundedCache<>(10, 50);
+		cache.put("a", 1);
+		assertThat(cache.getIfPresent("a")).isEqualTo(1);
+
+		Thread.sleep(80);
+
+		assertThat(cache.getIfPresent("a")).isNull();
+		assertThat(cache.size()).isZero();
+		assertThat(cache.putIfAbsent("a", 2)).isNull();
+		assertThat(cache.getIfPresent("a")).isEqualTo(2);
+	}
+
+	@Test
+	void loadsOnMissAndCountsHits() {
+		BoundedCache<String, Integer> cache = new BoundedCache<>(10, 60_000);
+		AtomicInteger loads = new AtomicInteger();
+
+		assertThat(cache.get("a", key -> loads.incrementAndGet())).isEqualTo(1);
+		assertThat(cache.get("a", key -> loads.incrementAndGet())).isEqualTo(1);
+
+		assertThat(loads).hasValue(1);
+		assertThat(cache.missCount()).isEqualTo(1);
+		assertThat(cache.hitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void valueLoadedDuringAnInvalidationIsNotCached() {
+		BoundedCache<String, Integer> cache = new BoundedCache<>(10, 60_000);
+
+		// the row changes and its entry is invalidated while the old value is being read
+		Integer stale = cache.get("a", key -> {
+			cache.invalidate(key);
+			return 1;
+		});
+
+		assertThat(stale).isEqualTo(1);
+		assertThat(cache.getIfPresent("a")).isNull();
+		assertThat(cache.get("a", key -> 2)).isEqualTo(2);
+		assertThat(cache.getIfPresent("a")).isEqualTo(2);
+	}
+
+	@Test
+	void bulkLoadSkipsCachedKeysAndRespectsInvalidation() {
+		BoundedCache<Long, String> cache = new BoundedCache<>(10, 60_000);
+		cache.put(1L, "one");
+		Map<Set<Long>, Integer> requested = new HashMap<>();
+
+		Map<Long, String> values = cache.getAll(List.of(1L, 2L, 3L), missing -> {
+			requested.merge(Set.copyOf(missing), 1, Integer::sum);
+			cache.invalidateIf(key -> key == 1L);
+			Map<Long, String> loaded = new HashMap<>();
+			missing.forEach(id -> loaded.put(id, "loaded-" + id));
+			return loaded;
+		});
+
+		assertThat(requested).containsOnlyKeys(Set.of(2L, 3L));
+		assertThat(values).containsEntry(1L, "one").containsEntry(2L, "loaded-2").containsEntry(3L, "loaded-3");
+		// only the invalidated key is dropped, the loaded ones were not covered by it
+		assertThat(cache.getIfPresent(1L)).isNull();
+		assertThat(cache.getIfPresent(2L)).isEqualTo("loaded-2");
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	void unrelatedInvalidationDuringALoadKeepsTheLoadedValue() {
+		BoundedCache<String, Integer> cache = new BoundedCache<>(10, 60_000);
+		cache.put("b", 2);
+		cache.put("c", 3);
+
+		Integer loaded = cache.get("a", key -> {
+			cache.invalidate("b");
+			cache.invalidateEntriesIf((k, value) -> value == 3);
+			return 1;
+		});
+
+		assertThat(loaded).isEqualTo(1);
+		assertThat(cache.getIfPresent("a")).isEqualTo(1);
+		assertThat(cache.getIfPresent("b")).isNull();
+		assertThat(cache.getIfPresent("c")).isNull();
+	}
+
+	@Test
+	void invalidationMatchingTheLoadedValueVoidsTheLoad() {
+		BoundedCache<String, Integer> cache = new BoundedCache<>(10, 60_000);
+
+		// e.g. a listing page that turns out to show the product that just changed
+		cache.get("a", key -> {
+			cache.invalidateEntriesIf((k, value) -> value == 1);
+			return 1;
+		});
+		cache.get("b", key -> {
+			cache.invalidateAll();
+			return 2;
+		});
+
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void putIfAbsentKeepsTheLiveEntry() {
+		BoundedCache<String, Integer> cache = new BoundedCache<>(10, 60_000);
+
+		assertThat(cache.putIfAbsent("a", 1)).isNull();
+		assertThat(cache.putIfAbsent("a", 2)).isEqualTo(1);
+		assertThat(cache.getIfPresent("a")).isEqualTo(1);
+	}
+
+	@Test
+	void invalidatesEntriesMatchingTheirValue() {
+		BoundedCache<String, Integer> cache = new BoundedCache<>(10, 60_000);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.put("c", 3);
+
+		cache.invalidateEntriesIf((key, value) -> value % 2 == 1);
+
+		assertThat(cache.getIfPresent("a")).isNull();
+		assertThat(cache.getIfPresent("b")).isEqualTo(2);
+		assertThat(cache.getIfPresent("c")).isNull();
+
+		cache.invalidateAll();
+		assertThat(cache.size()).isZero();
+	}
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+	private static final long OPEN_MILLIS = 50;
+
+	@Test
+	void opensAfterConsecutiveFailures() {
+		CircuitBreaker breaker = new CircuitBreaker(3, 60_000);
+
+		failTimes(breaker, 2);
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.onFailure();
+
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void successResetsTheFailureCount() {
+		CircuitBreaker breaker = new CircuitBreaker(3, 60_000);
+
+		failTimes(breaker, 2);
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.onSuccess();
+		failTimes(breaker, 2);
+
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void letsASingleProbeThroughAfterTheCoolDown() throws InterruptedException {
+		CircuitBreaker breaker = openBreaker();
+		Thread.sleep(OPEN_MILLIS + 20);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void successfulProbeClosesTheBreaker() throws InterruptedException {
+		CircuitBreaker breaker = openBreaker();
+		Thread.sleep(OPEN_MILLIS + 20);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.onSuccess();
+
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void failedProbeReopensForAnotherCoolDown() throws InterruptedException {
+		CircuitBreaker breaker = openBreaker();
+		Thread.sleep(OPEN_MILLIS + 20);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.onFailure();
+
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+		Thread.sleep(OPEN_MILLIS + 20);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void abandonedProbeIsGivenBack() throws InterruptedException {
+		CircuitBreaker breaker = openBreaker();
+		Thread.sleep(OPEN_MILLIS + 20);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.onAbandoned();
+
+		// the cool-down already passed, so the next caller probes right away
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+	}
+
+	@Test
+	void abandonedCallsDoNotCountAsFailures() {
+		CircuitBreaker breaker = new CircuitBreaker(2, 60_000);
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(breaker.tryAcquire()).isTrue();
+			breaker.onAbandoned();
+		}
+
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	private static CircuitBreaker openBreaker() {
+		CircuitBreaker breaker = new CircuitBreaker(2, OPEN_MILLIS);
+		failTimes(breaker, 2);
+		assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+		return breaker;
+	}
+
+	private static void failTimes(CircuitBreaker breaker, int failures) {
+		for (int i = 0; i < failures; i++) {
+			assertThat(breaker.tryAcquire()).isTrue();
+			breaker.onFailure();
+		}
+	}
+}
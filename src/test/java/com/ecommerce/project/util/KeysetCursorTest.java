@@ -0,0 +1,167 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.exceptions.APIExceptions;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class KeysetCursorTest {
+
+	@SuppressWarnings("rawtypes")
+	private final Path id = mock(Path.class);
+
+	@SuppressWarnings("rawtypes")
+	private final Path price = mock(Path.class);
+
+	@Test
+	void cursorIsUrlSafeAndCaseInsensitiveOnDirection() {
+		String cursor = KeysetCursor.encode("price", "DESC", 42L, 19.99);
+
+		assertThat(cursor).doesNotContain("=", "+", "/");
+		assertThat(KeysetCursor.decode(cursor, "price", "desc")).isNotNull();
+		assertThat(KeysetCursor.decode(cursor, "price", "DESC")).isNotNull();
+	}
+
+	@Test
+	void encodesTheRowsIdAndSortKey() {
+		Row row = new Row(7L, "Keyboard");
+
+		String fromRow = KeysetCursor.encode(row, "id", "name", "asc");
+
+		assertThat(fromRow).isEqualTo(KeysetCursor.encode("name", "asc", 7L, "Keyboard"));
+	}
+
+	@Test
+	void keepsSeparatorsInsideTheSortKey() {
+		String cursor = KeysetCursor.encode("productName", "asc", 3L, "two\nlines");
+
+		String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+		assertThat(raw).endsWith("two\nlines");
+		assertThat(KeysetCursor.decode(cursor, "productName", "asc")).isNotNull();
+	}
+
+	@Test
+	void rejectsACursorForAnotherSortOrder() {
+		String cursor = KeysetCursor.encode("price", "asc", 1L, 5.0);
+
+		assertThatThrownBy(() -> KeysetCursor.decode(cursor, "price", "desc"))
+				.isInstanceOf(APIExceptions.class)
+				.hasMessageContaining("different sort order");
+		assertThatThrownBy(() -> KeysetCursor.decode(cursor, "productName", "asc"))
+				.isInstanceOf(APIExceptions.class);
+	}
+
+	@Test
+	void rejectsMalformedCursors() {
+		String notBase64 = "***";
+		String tooFewParts = Base64.getUrlEncoder().encodeToString("price\nasc".getBytes(StandardCharsets.UTF_8));
+		String badId = Base64.getUrlEncoder().encodeToString("price\nasc\nabc\n5.0".getBytes(StandardCharsets.UTF_8));
+
+		assertThatThrownBy(() -> KeysetCursor.decode(notBase64, "price", "asc")).isInstanceOf(APIExceptions.class);
+		assertThatThrownBy(() -> KeysetCursor.decode(tooFewParts, "price", "asc")).isInstanceOf(APIExceptions.class);
+		assertThatThrownBy(() -> KeysetCursor.decode(badId, "price", "asc")).isInstanceOf(APIExceptions.class);
+	}
+
+	@Test
+	void firstPageIsTheBlankCursor() {
+		assertThat(KeysetCursor.isFirstPage("")).isTrue();
+		assertThat(KeysetCursor.isFirstPage(KeysetCursor.encode("price", "asc", 1L, 5.0))).isFalse();
+	}
+
+	@Test
+	void sortsByTheKeyWithTheIdAsTieBreaker() {
+		assertThat(KeysetCursor.sort("productId", "price", "desc"))
+				.isEqualTo(Sort.by(Sort.Direction.DESC, "price").and(Sort.by(Sort.Direction.DESC, "productId")));
+		assertThat(KeysetCursor.sort("productId", "productId", "asc"))
+				.isEqualTo(Sort.by(Sort.Direction.ASC, "productId"));
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	void seekPredicateCarriesARedundantKeyBound() {
+		Root root = mock(Root.class);
+		Path id = mock(Path.class);
+		Path orderDate = mock(Path.class);
+		CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class, RETURNS_MOCKS);
+		when(root.get("orderId")).thenReturn(id);
+		when(root.get("orderDate")).thenReturn(orderDate);
+		doReturn(LocalDate.class).when(orderDate).getJavaType();
+		LocalDate lastDate = LocalDate.of(2026, 3, 1);
+		String cursor = KeysetCursor.encode("orderDate", "desc", 100L, lastDate);
+
+		KeysetCursor.decode(cursor, "orderDate", "desc").after("orderId")
+				.toPredicate(root, mock(CriteriaQuery.class), criteriaBuilder);
+
+		verify(criteriaBuilder).lessThanOrEqualTo(orderDate, lastDate);
+		verify(criteriaBuilder).lessThan(orderDate, lastDate);
+		verify(criteriaBuilder).lessThan(id, 100L);
+		verify(criteriaBuilder).equal(orderDate, lastDate);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void ascendingSeekOnANullableKeyKeepsNullsWithoutABound() {
+		CriteriaBuilder criteriaBuilder = ascendingPriceSeek(true);
+
+		verify(criteriaBuilder, never()).greaterThanOrEqualTo(any(Expression.class), any(Comparable.class));
+		verify(criteriaBuilder).greaterThan(price, 19.99);
+		verify(criteriaBuilder).greaterThan(id, 7L);
+		verify(criteriaBuilder).isNull(price);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void ascendingSeekOnANonNullKeyCarriesARangeBound() {
+		CriteriaBuilder criteriaBuilder = ascendingPriceSeek(false);
+
+		verify(criteriaBuilder).greaterThanOrEqualTo(price, 19.99);
+		verify(criteriaBuilder).greaterThan(price, 19.99);
+		verify(criteriaBuilder).greaterThan(id, 7L);
+		verify(criteriaBuilder, never()).isNull(price);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private CriteriaBuilder ascendingPriceSeek(boolean nullable) {
+		Root root = mock(Root.class);
+		EntityType model = mock(EntityType.class);
+		SingularAttribute attribute = mock(SingularAttribute.class);
+		CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class, RETURNS_MOCKS);
+		when(root.get("productId")).thenReturn(id);
+		when(root.get("price")).thenReturn(price);
+		when(root.getModel()).thenReturn(model);
+		doReturn(attribute).when(model).getAttribute("price");
+		when(attribute.isOptional()).thenReturn(nullable);
+		doReturn(Double.class).when(price).getJavaType();
+		String cursor = KeysetCursor.encode("price", "asc", 7L, 19.99);
+
+		KeysetCursor.decode(cursor, "price", "asc").after("productId")
+				.toPredicate(root, mock(CriteriaQuery.class), criteriaBuilder);
+		return criteriaBuilder;
+	}
+
+	public record Row(Long id, String name) {
+
+		public Long getId() {
+			return id;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}